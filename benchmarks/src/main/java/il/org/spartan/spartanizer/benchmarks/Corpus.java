@@ -0,0 +1,44 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.openjdk.jmh.annotations.*;
+
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.utils.*;
+
+/** A file of <code>laconization-cases/</code>, parsed once per trial, with its
+ * nodes by type. The directory is found by the system property
+ * <code>corpus</code>, by default relative to <code>benchmarks/</code>.
+ * @since 2016 */
+@State(Scope.Benchmark) public class Corpus {
+  @Param({ "StandardTable", "TreeRangeSet", "TypeTokenTest", "FilteredEntryMultimap", "LinkedListMultimapTest", "XmlEscapersTest" }) public String file;
+  /** Text of the file */
+  public String text;
+  /** The file, parsed */
+  public CompilationUnit unit;
+  /** Nodes of the file, by type */
+  public final Map<Class<? extends ASTNode>, List<ASTNode>> nodes = new HashMap<>();
+  /** Expressions of the file */
+  public final List<Expression> expressions = new ArrayList<>();
+
+  @Setup(Level.Trial) public void load() throws IOException {
+    text = FileUtils.readFromFile(System.getProperty("corpus", "../laconization-cases") + "/" + file + ".java");
+    unit = (CompilationUnit) makeAST.COMPILATION_UNIT.from(text);
+    unit.accept(new ASTVisitor() {
+      @Override public void preVisit(final ASTNode ¢) {
+        nodes.computeIfAbsent(¢.getClass(), __ -> new ArrayList<>()).add(¢);
+        if (¢ instanceof Expression)
+          expressions.add((Expression) ¢);
+      }
+    });
+  }
+
+  /** @param ¢ JD
+   * @return nodes of the file of the given type */
+  public List<ASTNode> nodes(final Class<? extends ASTNode> ¢) {
+    return nodes.getOrDefault(¢, Collections.emptyList());
+  }
+}
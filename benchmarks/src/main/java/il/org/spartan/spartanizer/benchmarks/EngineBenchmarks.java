@@ -0,0 +1,57 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jdt.core.dom.rewrite.*;
+import org.eclipse.jface.text.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.java.*;
+
+/** Throughput of the stages of the tipping engine, over the files of
+ * {@link Corpus}. Data which the engine keeps for a compilation unit in its
+ * {@link NodeTable} are dropped before each invocation, so that every
+ * invocation computes them afresh, as a new round of
+ * {@link Trimmer#fixed(String)} does. Run with <code>-prof gc</code> for
+ * allocation rates.
+ * @since 2016 */
+@BenchmarkMode(Mode.Throughput) @OutputTimeUnit(TimeUnit.SECONDS) @Warmup(iterations = 5, time = 1) @Measurement(iterations = 5, time = 1) @Fork(1)
+public class EngineBenchmarks {
+  @Benchmark public ASTNode parse(final Corpus ¢) {
+    return makeAST.COMPILATION_UNIT.from(¢.text);
+  }
+
+  @Benchmark public List<Tip> collectSuggestions(final Corpus ¢) {
+    NodeTable.discard(¢.unit.getAST());
+    return new Trimmer().collectSuggesions(¢.unit);
+  }
+
+  /** A single round of {@link Trimmer#fixed(String)}: parse, find tips, and
+   * rewrite */
+  @Benchmark public String fixedRound(final Corpus c) throws BadLocationException {
+    final Document $ = new Document(c.text);
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from($.get());
+    final ASTRewrite r = ASTRewrite.create(u.getAST());
+    new Trimmer().consolidateTips(r, u, null, new AtomicInteger());
+    r.rewriteAST($, null).apply($);
+    NodeTable.discard(u.getAST());
+    return $.get();
+  }
+
+  @Benchmark public Set<?> declaresDown(final Corpus ¢) {
+    NodeTable.discard(¢.unit.getAST());
+    return Environment.declaresDown(¢.unit);
+  }
+
+  @Benchmark public void typeOf(final Corpus c, final Blackhole b) {
+    NodeTable.discard(c.unit.getAST());
+    for (final Expression ¢ : c.expressions)
+      b.consume(type.of(¢));
+  }
+}
@@ -0,0 +1,30 @@
+package il.org.spartan.spartanizer.benchmarks;
+
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Throughput of {@link Toolbox#firstTipper(ASTNode)} over all nodes of a
+ * single type in a file of the {@link Corpus}
+ * @since 2016 */
+@BenchmarkMode(Mode.Throughput) @OutputTimeUnit(TimeUnit.SECONDS) @Warmup(iterations = 5, time = 1) @Measurement(iterations = 5, time = 1) @Fork(1)
+@State(Scope.Benchmark) public class FirstTipperBenchmark {
+  @Param({ "InfixExpression", "MethodInvocation", "PrefixExpression", "ConditionalExpression", "Assignment", "IfStatement", "Block",
+      "VariableDeclarationFragment", "ReturnStatement", "MethodDeclaration" }) public String nodeType;
+  private Class<? extends ASTNode> clazz;
+  private final Toolbox toolbox = Toolbox.defaultInstance();
+
+  @Setup(Level.Trial) public void setup() throws ClassNotFoundException {
+    clazz = Class.forName(ASTNode.class.getPackage().getName() + "." + nodeType).asSubclass(ASTNode.class);
+  }
+
+  @Benchmark public void firstTipper(final Corpus c, final Blackhole b) {
+    NodeTable.discard(c.unit.getAST());
+    for (final ASTNode ¢ : c.nodes(clazz))
+      b.consume(toolbox.firstTipper(¢));
+  }
+}
@@ -6,7 +6,6 @@ import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.jdt.core.dom.*;
 
-import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
 
 /** @author Boris van Sosin <code><boris.van.sosin [at] gmail.com></code>
@@ -91,7 +90,6 @@ public final class Builder extends IncrementalProjectBuilder {
       throws CoreException {
     if (m != null)
       m.beginTask("Checking for spartanization opportunities", IProgressMonitor.UNKNOWN);
-    Toolbox.refresh();
     build(kind);
     if (m != null)
       m.done();
@@ -19,7 +19,9 @@ import il.org.spartan.spartanizer.engine.*;
   visit_root, visit_cu, visit_node, //
 }
 
-/** An {@link Applicator} suitable for eclipse GUI.
+/** An {@link Applicator} suitable for eclipse GUI. A compilation unit whose
+ * source returns, after a pass, to its state after an earlier pass, is not
+ * spartanized any further; see {@link Oscillation}.
  * @author Ori Roth
  * @since 2.6 */
 public class GUIBatchLaconizer extends Applicator {
@@ -27,6 +29,12 @@ public class GUIBatchLaconizer extends Applicator {
   private static final int PASSES_FEW = 1;
   /** Many passes for the applicator to conduct. */
   private static final int PASSES_MANY = 20;
+  /** Compilation units parsed in a single batch; the trees of a batch are all
+   * kept until each of its units is done with */
+  private static final int BATCH = 32;
+  /** Applicator of the default run action; <code><b>null</b></code> if there
+   * is none */
+  private AbstractGUIApplicator applicator;
 
   /** Spartanization process. */
   @Override public void go() {
@@ -37,6 +45,7 @@ public class GUIBatchLaconizer extends Applicator {
       return;
     final AtomicInteger totalTipsInvoked = new AtomicInteger(0);
     runContext().accept(() -> {
+      final Map<WrappedCompilationUnit, Oscillation> oscillations = new HashMap<>();
       final int l = passes();
       for (int pass = 1; pass <= l; ++pass) {
         listener().push(message.run_pass.get(Integer.valueOf(pass)));
@@ -45,12 +54,20 @@ public class GUIBatchLaconizer extends Applicator {
         final List<WrappedCompilationUnit> selected = selection().inner;
         final List<WrappedCompilationUnit> alive = new ArrayList<>(selected);
         final List<WrappedCompilationUnit> dead = new ArrayList<>();
-        for (final WrappedCompilationUnit ¢ : alive) {
+        for (int i = 0; i < alive.size(); ++i) {
+          final WrappedCompilationUnit ¢ = alive.get(i);
+          if (i % BATCH == 0)
+            WrappedCompilationUnit.build(alive.subList(i, Math.min(alive.size(), i + BATCH)));
+          final Oscillation o = oscillations.computeIfAbsent(¢, GUIBatchLaconizer::oscillation);
           final int tipsInvoked = runAction().apply(¢.build()).intValue();
           if (tipsInvoked <= 0)
             dead.add(¢);
+          else if (oscillates(¢, o, firing())) {
+            dead.add(¢);
+            listener().tick(message.visit_cu_cycle.get(¢.descriptor.getElementName(), tippers(o)));
+          }
           ¢.dispose();
-          listener().tick(message.visit_cu.get(Integer.valueOf(alive.indexOf(¢)), Integer.valueOf(alive.size()), ¢.descriptor.getElementName()));
+          listener().tick(message.visit_cu.get(Integer.valueOf(i), Integer.valueOf(alive.size()), ¢.descriptor.getElementName()));
           totalTipsInvoked.addAndGet(tipsInvoked);
           if (!shouldRun())
             break;
@@ -65,6 +82,54 @@ public class GUIBatchLaconizer extends Applicator {
     listener().pop(message.run_finish.get(selection().name, totalTipsInvoked));
   }
 
+  /** @param ¢ JD
+   * @return oscillation of the compilation unit, having its current source as
+   *         the initial state, or <code><b>null</b></code> if the source is
+   *         not available */
+  private static Oscillation oscillation(final WrappedCompilationUnit ¢) {
+    final String $ = source(¢);
+    if ($ == null)
+      return null;
+    final Oscillation o = new Oscillation();
+    o.repeats($, Collections.emptySet());
+    return o;
+  }
+
+  /** @param ¢ JD
+   * @param o JD
+   * @param tippers classes of the tippers which fired in the pass
+   * @return whether the source of the compilation unit repeats an earlier
+   *         state */
+  private static boolean oscillates(final WrappedCompilationUnit ¢, final Oscillation o, final Set<Class<?>> tippers) {
+    final String $ = o == null ? null : source(¢);
+    return $ != null && o.repeats($, tippers);
+  }
+
+  private static String source(final WrappedCompilationUnit ¢) {
+    try {
+      return ¢.descriptor == null ? null : ¢.descriptor.getSource();
+    } catch (final JavaModelException x) {
+      monitor.logEvaluationError(x);
+      return null;
+    }
+  }
+
+  /** @return classes of the tippers which fired in the last pass, if the
+   *         applicator tells them */
+  private Set<Class<?>> firing() {
+    return applicator instanceof Trimmer ? ((Trimmer) applicator).firing() : Collections.emptySet();
+  }
+
+  /** @param ¢ JD
+   * @return names of the tippers which fired in the passes of the cycle, which
+   *         are those undoing each other */
+  private static String tippers(final Oscillation ¢) {
+    final Set<String> $ = new TreeSet<>();
+    for (final Class<?> t : ¢.tippers())
+      $.add(t.getSimpleName());
+    return $.isEmpty() ? "?" : $ + "";
+  }
+
   /** Default listener configuration of {@link GUIBatchLaconizer}. Simple
    * printing to console.
    * @return this applicator */
@@ -127,6 +192,7 @@ public class GUIBatchLaconizer extends Applicator {
   public GUIBatchLaconizer defaultRunAction(final AbstractGUIApplicator a) {
     setRunAction(¢ -> Integer.valueOf(a.apply(¢, selection())));
     name(a.getName());
+    applicator = a;
     return this;
   }
 
@@ -150,6 +216,7 @@ public class GUIBatchLaconizer extends Applicator {
     run_pass(1, inp -> "Pass #" + printableAt(inp, 0)), //
     run_pass_finish(1, inp -> "Pass #" + printableAt(inp, 0) + " finished"), //
     visit_cu(3, inp -> printableAt(inp, 0) + "/" + printableAt(inp, 1) + "\tSpartanizing " + printableAt(inp, 2)), //
+    visit_cu_cycle(2, inp -> "Stopped spartanizing " + printableAt(inp, 0) + ", whose tips undo each other: " + printableAt(inp, 1)), //
     run_finish(2, inp -> "Done spartanizing " + printableAt(inp, 0) + "\nTips accepted: " + printableAt(inp, 1));
     private final int inputCount;
     private final Function<Object[], String> printing;
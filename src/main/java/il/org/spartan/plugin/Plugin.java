@@ -3,11 +3,15 @@ package il.org.spartan.plugin;
 import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.*;
 import org.eclipse.core.runtime.jobs.*;
+import org.eclipse.core.runtime.preferences.*;
+import org.eclipse.jdt.core.*;
 import org.eclipse.ui.*;
 import org.eclipse.ui.plugin.*;
 import org.osgi.framework.*;
 
 import il.org.spartan.plugin.old.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
 
 /** @author Artium Nihamkin
  * @since 2013/01/01
@@ -44,6 +48,11 @@ public final class Plugin extends AbstractUIPlugin implements IStartup {
   @Override public void start(final BundleContext ¢) throws Exception {
     super.start(¢);
     monitor.debug("START: gUIBatchLaconizer");
+    getPreferenceStore().addPropertyChangeListener(e -> {
+      if (e != null && e.getProperty() != null && e.getProperty().startsWith(PreferencesResources.TIPPER_CATEGORY_PREFIX))
+        Toolbox.refresh();
+    });
+    InstanceScope.INSTANCE.getNode(JavaCore.PLUGIN_ID).addPreferenceChangeListener(e -> ParserPool.refresh());
     startSpartan();
   }
 
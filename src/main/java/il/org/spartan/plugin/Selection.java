@@ -26,8 +26,7 @@ public class Selection extends AbstractSelection<Selection> {
   }
 
   public Selection buildAll() {
-    for (final WrappedCompilationUnit ¢ : inner)
-      ¢.build();
+    WrappedCompilationUnit.build(inner);
     return this;
   }
 
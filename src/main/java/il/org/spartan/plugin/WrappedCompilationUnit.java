@@ -36,6 +36,20 @@ public class WrappedCompilationUnit {
     return this;
   }
 
+  /** Build compilation units, parsing those not built yet in a single batch;
+   * see {@link ParserPool}
+   * @param ¢ JD */
+  public static void build(final List<WrappedCompilationUnit> ¢) {
+    final List<ICompilationUnit> us = new ArrayList<>();
+    for (final WrappedCompilationUnit w : ¢)
+      if (w.compilationUnit == null)
+        us.add(w.descriptor);
+    final Map<ICompilationUnit, CompilationUnit> $ = ParserPool.parse(us, nullProgressMonitor);
+    for (final WrappedCompilationUnit w : ¢)
+      if (w.compilationUnit == null)
+        w.compilationUnit = $.get(w.descriptor);
+  }
+
   public WrappedCompilationUnit dispose() {
     compilationUnit = null;
     return this;
@@ -24,10 +24,6 @@ import il.org.spartan.spartanizer.tipping.*;
 import il.org.spartan.utils.*;
 
 public abstract class AbstractCommandLineSpartanizer {
-  static String presentFileName;
-  static String presentMethod;
-  static List<Class<? extends BodyDeclaration>> selectedNodeTypes = as.list(MethodDeclaration.class);
-
   static AbstractGUIApplicator getSpartanizer(final String tipperName) {
     return Tips2.get(tipperName);
   }
@@ -49,14 +45,22 @@ public abstract class AbstractCommandLineSpartanizer {
   Toolbox toolbox = new Toolbox();
   final ChainStringToIntegerMap spectrum = new ChainStringToIntegerMap();
   final ChainStringToIntegerMap coverage = new ChainStringToIntegerMap();
+  String presentFileName;
+  String presentMethod;
+  List<Class<? extends BodyDeclaration>> selectedNodeTypes = as.list(MethodDeclaration.class);
 
   public abstract void apply();
 
   public void consolidateTips(final ASTRewrite r, final BodyDeclaration u) {
-    toolbox = Toolbox.defaultInstance();
+    toolbox = Session.current().toolbox();
+    final Trace trace = Session.current().trace();
+    final boolean log = TrimmerLog.on();
     u.accept(new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
-        TrimmerLog.visitation(n);
+        if (trace != null)
+          trace.visitation(n);
+        if (log)
+          TrimmerLog.visitation(n);
         if (disabling.on(n))
           return true;
         Tipper<N> tipper = null;
@@ -69,7 +73,9 @@ public abstract class AbstractCommandLineSpartanizer {
           return true;
         Tip s = null;
         try {
-          s = tipper.tip(n, exclude);
+          s = TipperStatistics.tip(tipper, n, exclude);
+          if (trace != null)
+            trace.tip(tipper, n);
           tick(n, tipper);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
@@ -79,7 +85,13 @@ public abstract class AbstractCommandLineSpartanizer {
         if (s != null) {
           ++tippersAppliedOnCurrentObject;
           tick2(tipper); // save coverage info
-          TrimmerLog.application(r, s);
+          TipperStatistics.applied(tipper);
+          if (trace != null)
+            trace.application(tipper, n);
+          if (log)
+            TrimmerLog.application(r, s);
+          else
+            TipperStatistics.go(s, r, null);
         }
         return true;
       }
@@ -93,7 +105,8 @@ public abstract class AbstractCommandLineSpartanizer {
        * @throws TipperFailure */
       <N extends ASTNode> void tick(final N n, final Tipper<N> w) throws TipperFailure {
         tick(w);
-        TrimmerLog.tip(w, n);
+        if (log)
+          TrimmerLog.tip(w, n);
       }
 
       /** @param w */
@@ -349,7 +362,7 @@ public abstract class AbstractCommandLineSpartanizer {
     system.bash("wc " + separate.these(beforeFileName, afterFileName, essenced(beforeFileName), essenced(afterFileName)));
   }
 
-  @SuppressWarnings("static-method") public void selectedNodes(@SuppressWarnings("unchecked") final Class<? extends BodyDeclaration>... ¢) {
+  public void selectedNodes(@SuppressWarnings("unchecked") final Class<? extends BodyDeclaration>... ¢) {
     selectedNodeTypes = as.list(¢);
   }
 
@@ -1,6 +1,8 @@
 package il.org.spartan.spartanizer.cmdline;
 
 import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
 
 import org.eclipse.core.resources.*;
@@ -18,7 +20,9 @@ import il.org.spartan.spartanizer.utils.*;
 import il.org.spartan.utils.*;
 
 /** An {@link IApplication} extension entry point, allowing execution of this
- * plug-in from the command line.
+ * plug-in from the command line. With option <code>-D</code>, or when run by
+ * {@link #main(String[])}, files are trimmed in pure DOM mode, without a
+ * workspace, resources or Java model.
  * @author Daniel Mittelman <code><mittelmania [at] gmail.com></code>
  * @since 2015/09/19 */
 public final class Application implements IApplication {
@@ -41,6 +45,14 @@ public final class Application implements IApplication {
     return countLines(new File(fileName));
   }
 
+  /** Run in pure DOM mode, without the Eclipse platform
+   * @param args as given to {@link #start(IApplicationContext)} */
+  public static void main(final String[] args) {
+    final Application $ = new Application();
+    $.optDOM = true;
+    $.run(as.list(args));
+  }
+
   static MethodInvocation getMethodInvocation(final CompilationUnit u, final int lineNumber, final MethodInvocation i) {
     final Wrapper<MethodInvocation> $ = new Wrapper<>();
     u.accept(new ASTVisitor() {
@@ -71,10 +83,13 @@ public final class Application implements IApplication {
     System.out.println("  -E       Display statistics for each file separately");
     System.out.println("  -V       Be verbose");
     System.out.println("  -L       printout logs");
+    System.out.println("  -m       Skip files which did not change since the last run with the same options, by a manifest in PATH");
+    System.out.println("  -D       Pure DOM mode: read, parse, trim and write files without a temporary workspace project");
     System.out.println("");
     System.out.println("Print statistics:");
     System.out.println("  -l       Show the number of lines before and after spartanization");
     System.out.println("  -r       Show the number of Spartanizaion made in each round");
+    System.out.println("  -P       Show the CPU time and the allocations of each tipper, and of each category of tippers");
     System.out.println("");
     System.out.println("Output:");
     System.out.println("  -logPath Output dir for logs");
@@ -95,38 +110,64 @@ public final class Application implements IApplication {
   IPackageFragmentRoot srcRoot;
   IPackageFragment pack;
   boolean optDoNotOverwrite, optIndividualStatistics, optVerbose;
-  boolean optStatsLines, optStatsChanges, printLog;
+  boolean optStatsLines, optStatsChanges, optStatsCosts, printLog, optManifest;
+  /** Whether files are trimmed in pure DOM mode, see {@link #trim(File, FileStats)} */
+  boolean optDOM;
   int optRounds = 20;
   String optPath;
 
   @Override public Object start(final IApplicationContext arg0) {
-    if (parseArguments(as.list((String[]) arg0.getArguments().get(IApplicationContext.APPLICATION_ARGS))))
+    return run(as.list((String[]) arg0.getArguments().get(IApplicationContext.APPLICATION_ARGS)));
+  }
+
+  Object run(final List<String> args) {
+    if (parseArguments(args))
       return IApplication.EXIT_OK;
     final List<FileStats> fileStats = new ArrayList<>();
-    try {
-      prepareTempIJavaProject();
-    } catch (final CoreException e) {
-      System.err.println(e.getMessage());
-      return IApplication.EXIT_OK;
-    }
+    if (!optDOM)
+      try {
+        prepareTempIJavaProject();
+      } catch (final CoreException e) {
+        System.err.println(e.getMessage());
+        return IApplication.EXIT_OK;
+      }
     if (printLog) {
       LogManager.activateLog();
       LogManager.initialize("/home/matteo/SpartanLog");
     }
+    if (optStatsCosts)
+      Session.current().collectStatistics(true);
+    final Manifest m = !optManifest ? null
+        : new Manifest(manifestFile(), Manifest.configuration(Toolbox.defaultInstance(), Integer.valueOf(optRounds), Boolean.valueOf(optDoNotOverwrite)));
     int done = 0, failed = 0;
     for (final File f : new FilesGenerator(".java", ".JAVA").from(optPath)) {
+      if (m != null && unchanged(f, m, fileStats)) {
+        ++done;
+        continue;
+      }
       ICompilationUnit u = null;
       try {
-        u = openCompilationUnit(f);
         final FileStats s = new FileStats(f);
-        for (int i = 0; i < optRounds; ++i) {
-          final int n = new LaconizeProject().countTips();
-          if (n == 0)
-            break;
-          s.addRoundStat(n);
-          new Trimmer().apply(u);
+        boolean fixed = false;
+        if (optDOM)
+          fixed = trim(f, s);
+        else {
+          u = openCompilationUnit(f);
+          for (int i = 0; i < optRounds; ++i) {
+            final int n = new LaconizeProject().countTips();
+            if (n == 0) {
+              fixed = true;
+              break;
+            }
+            s.addRoundStat(n);
+            new Trimmer().apply(u);
+          }
+          FileUtils.writeToFile(determineOutputFilename(f.getAbsolutePath()), u.getSource());
         }
-        FileUtils.writeToFile(determineOutputFilename(f.getAbsolutePath()), u.getSource());
+        // Once overwritten, the file needs no more tips than a fixed point does
+        if (m != null)
+          m.put(f.getAbsolutePath(), FileUtils.read(f), optDoNotOverwrite ? s.tips() : 0, fixed,
+              optDoNotOverwrite ? s.rows() : Collections.emptyList());
         if (optVerbose)
           System.out.println("Spartanized file " + f.getAbsolutePath());
         s.countLinesAfter();
@@ -140,14 +181,24 @@ public final class Application implements IApplication {
         e.printStackTrace();
         ++failed;
       } finally {
-        discardCompilationUnit(u);
+        if (u != null)
+          discardCompilationUnit(u);
       }
     }
     System.out.println(done + " files processed. " + (failed == 0 ? "" : failed + " failed."));
+    if (m != null)
+      try {
+        m.save();
+        System.out.println(m.hits() + " of them unchanged since the last run.");
+      } catch (final IOException e) {
+        System.err.println(manifestFile() + ": " + e.getMessage());
+      }
     if (optStatsChanges)
       printChangeStatistics(fileStats);
     if (optStatsLines)
       printLineStatistics(fileStats);
+    if (optStatsCosts)
+      System.out.print(Session.current().statistics().costs());
     if (printLog)
       LogManager.closeAllWriters();
     return IApplication.EXIT_OK;
@@ -157,6 +208,37 @@ public final class Application implements IApplication {
     ___.nothing();
   }
 
+  /** @return where the manifest of the files processed is kept */
+  File manifestFile() {
+    final File $ = new File(optPath);
+    return new File($.isDirectory() ? $ : $.getAbsoluteFile().getParentFile(), "spartan.manifest");
+  }
+
+  /** Find a file in a manifest, and if it did not change since the last run,
+   * and needs no further work, take its statistics from there
+   * @param f JD
+   * @param m JD
+   * @param ss where the statistics of the file go
+   * @return whether the file was found unchanged */
+  boolean unchanged(final File f, final Manifest m, final List<FileStats> ss) {
+    try {
+      final Manifest.Entry e = m.get(f.getAbsolutePath(), FileUtils.read(f));
+      if (e == null || !optDoNotOverwrite && !e.fixed || !new File(determineOutputFilename(f.getAbsolutePath())).exists())
+        return false;
+      final FileStats $ = new FileStats(f);
+      for (final String[] ¢ : e.rows)
+        $.addRoundStat(Integer.parseInt(¢[0]));
+      $.countLinesAfter();
+      ss.add($);
+      if (optVerbose)
+        System.out.println("Unchanged file " + f.getAbsolutePath());
+      return true;
+    } catch (final IOException | NumberFormatException x) {
+      System.err.println(f + ": " + x.getMessage());
+      return false;
+    }
+  }
+
   String determineOutputFilename(final String path) {
     return !optDoNotOverwrite ? path : path.substring(0, path.lastIndexOf('.')) + "__new.java";
   }
@@ -211,8 +293,14 @@ public final class Application implements IApplication {
         optStatsLines = true;
       if ("-r".equals(a))
         optStatsChanges = true;
+      if ("-P".equals(a))
+        optStatsCosts = true;
       if ("-L".equals(a))
         printLog = true;
+      if ("-m".equals(a))
+        optManifest = true;
+      if ("-D".equals(a))
+        optDOM = true;
       if (!a.startsWith("-"))
         optPath = a;
     }
@@ -240,6 +328,31 @@ public final class Application implements IApplication {
     javaProject.setRawClasspath(buildPath, null);
   }
 
+  /** Trim a file in pure DOM mode: its text is read by NIO, trimmed by
+   * {@link Trimmer#fixed(String, Budget)}, with a budget of {@link #optRounds}
+   * rounds, and then written back, only if it changed
+   * @param f JD
+   * @param s where the number of tips of each round goes
+   * @return whether the file reached a fixed point within the budget
+   * @throws IOException */
+  boolean trim(final File f, final FileStats s) throws IOException {
+    final String from = new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+    final Budget b = new Budget().rounds(optRounds);
+    final String $;
+    try {
+      $ = new Trimmer().fixed(from, b);
+    } catch (final AssertionError x) {
+      throw new IOException(x);
+    }
+    for (int ¢ = 0; ¢ < b.rounds(); ++¢)
+      if (b.tipsInRound(¢) > 0)
+        s.addRoundStat(b.tipsInRound(¢));
+    final File to = new File(determineOutputFilename(f.getAbsolutePath()));
+    if (!from.equals($) || !to.equals(f.getAbsoluteFile()))
+      Files.write(to.toPath(), $.getBytes(StandardCharsets.UTF_8));
+    return b.exhausted() == null;
+  }
+
   void printLineStatistics(final List<FileStats> ss) {
     System.out.println("\nLine differences:");
     if (optIndividualStatistics)
@@ -296,6 +409,23 @@ public final class Application implements IApplication {
       roundStats.add(Integer.valueOf(¢));
     }
 
+    /** @return rounds of the file, each as a row of a {@link Manifest} holding
+     *         the number of tips of the round */
+    public List<String[]> rows() {
+      final List<String[]> $ = new ArrayList<>();
+      for (final Integer ¢ : roundStats)
+        $.add(new String[] { ¢ + "" });
+      return $;
+    }
+
+    /** @return number of tips of all rounds */
+    public int tips() {
+      int $ = 0;
+      for (final Integer ¢ : roundStats)
+        $ += ¢.intValue();
+      return $;
+    }
+
     public void countLinesAfter() throws IOException {
       linesAfter = countLines(determineOutputFilename(file.getAbsolutePath()));
     }
@@ -3,6 +3,9 @@ package il.org.spartan.spartanizer.cmdline;
 import static il.org.spartan.tide.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.eclipse.jdt.core.dom.*;
 
@@ -25,12 +28,49 @@ public final class BatchSpartanizer {
   private static boolean defaultDir;
   private static String outputDir;
   private static String inputDir;
+  /** Number of threads processing files; one means no thread pool at all */
+  private static int threads = 1;
+  /** Where counts and latencies of tippers go, if anywhere */
+  private static String profileFileName;
+  /** Whether to print the costs of tippers at the end */
+  private static boolean costs;
+  /** Where the trace of the engine goes, if anywhere */
+  private static String traceFileName;
+  /** Spartanizers of worker threads; the tippers of each are not shared with
+   * any other thread */
+  private static final ThreadLocal<InteractiveSpartanizer> spartanizers = ThreadLocal
+      .withInitial(() -> new InteractiveSpartanizer().disable(Nominal.class).disable(Nanos.class));
+  /** Limits of the work on a single type; zero means none */
+  private static int maxRounds, maxMillis, maxTips;
+  /** Whether to go on with cheap tippers only, once a limit is reached */
+  private static boolean fallback;
+  /** Whether to skip files which did not change since the last run, by a
+   * {@link Manifest} in the output directory */
+  private static boolean incremental;
+  /** Whether to splice members which did not change since the last run, by a
+   * {@link MemberCache} in the output directory */
+  private static boolean cached;
+  /** Cheap tippers of worker threads */
+  private static final ThreadLocal<Toolbox> fallbacks = ThreadLocal.withInitial(() -> {
+    final Toolbox $ = Toolbox.muttableDefaultInstance();
+    $.disable(Nominal.class);
+    $.disable(Nanos.class);
+    $.disable(TipperCategory.Inlining.class);
+    $.disable(TipperCategory.Sorting.class);
+    return $;
+  });
 
   public static void main(final String[] args) {
     if (args.length == 0)
       printHelpPrompt();
     else {
       parseCommandLineArgs(args);
+      if (profileFileName != null || costs)
+        Session.current().collectStatistics(costs);
+      if (traceFileName != null)
+        Session.current().startTrace(1 << 20);
+      if (cached)
+        Session.current().useCache(new MemberCache(new File(cacheFileName()), MemberCache.CAPACITY));
       if (inputDir != null && outputDir != null) {
         final File input = new File(inputDir);
         if (!input.isDirectory()) {
@@ -50,6 +90,30 @@ public final class BatchSpartanizer {
         for (final String ¢ : args)
           new BatchSpartanizer(¢).fire();
       }
+      if (profileFileName != null)
+        try {
+          System.out.println("Profile is in " + Session.current().statistics().csv(profileFileName));
+          Session.current().statistics().writeJson(profileFileName + ".json");
+        } catch (final IOException x) {
+          monitor.infoIOException(x, profileFileName);
+        }
+      if (costs)
+        System.out.print(Session.current().statistics().costs());
+      if (cached)
+        try {
+          Session.current().cache().save();
+          System.out.println("Members: " + Session.current().cache().hits() + " spliced, " + Session.current().cache().misses() + " tipped; cache is in "
+              + cacheFileName());
+        } catch (final IOException x) {
+          monitor.infoIOException(x, cacheFileName());
+        }
+      if (traceFileName != null)
+        try {
+          Session.current().stopTrace().save(traceFileName);
+          System.out.println("Trace is in " + traceFileName + ".csv and " + traceFileName + ".json");
+        } catch (final IOException x) {
+          monitor.infoIOException(x, traceFileName);
+        }
     }
   }
 
@@ -67,6 +131,16 @@ public final class BatchSpartanizer {
     System.out.println("  -d       default directory: use the current directory for the analysis");
     System.out.println("  -o       output directory: here go the results of the analysis");
     System.out.println("  -i       input directory: place here the projects that you want to analyze.");
+    System.out.println("  -j N     jobs: process files on N threads; output is the same as with one thread");
+    System.out.println("  -p FILE  profile: write counts and latencies of each tipper to FILE.csv and FILE.json");
+    System.out.println("  -r N     rounds: stop spartanizing a type after N rounds");
+    System.out.println("  -t MS    time: stop spartanizing a type after MS milliseconds");
+    System.out.println("  -n N     tips: stop spartanizing a type after N tips");
+    System.out.println("  -f       fallback: once a type exceeds a limit, go on with cheap tippers only");
+    System.out.println("  -c       costs: print the CPU time and the allocations of each tipper, and of each category of tippers");
+    System.out.println("  -x FILE  trace: write the latest events of the engine to FILE.csv and FILE.json");
+    System.out.println("  -m       manifest: skip files which did not change since the last run with the same options");
+    System.out.println("  -k       cache: splice methods and other members which did not change since the last run");
     System.out.println("");
   }
 
@@ -81,6 +155,36 @@ public final class BatchSpartanizer {
         inputDir = args[¢ + 1];
         // System.out.println("InputDir: " + inputDir);
         ¢ += 2;
+      } else if ("-j".equals(args[¢])) {
+        threads = Math.max(1, Integer.parseInt(args[¢ + 1]));
+        ¢ += 2;
+      } else if ("-p".equals(args[¢])) {
+        profileFileName = args[¢ + 1];
+        ¢ += 2;
+      } else if ("-x".equals(args[¢])) {
+        traceFileName = args[¢ + 1];
+        ¢ += 2;
+      } else if ("-r".equals(args[¢])) {
+        maxRounds = Integer.parseInt(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-t".equals(args[¢])) {
+        maxMillis = Integer.parseInt(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-n".equals(args[¢])) {
+        maxTips = Integer.parseInt(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-f".equals(args[¢])) {
+        fallback = true;
+        ¢ += 1;
+      } else if ("-c".equals(args[¢])) {
+        costs = true;
+        ¢ += 1;
+      } else if ("-m".equals(args[¢])) {
+        incremental = true;
+        ¢ += 1;
+      } else if ("-k".equals(args[¢])) {
+        cached = true;
+        ¢ += 1;
       } else if ("-d".equals(args[¢])) {
         inputDir = ".";
         ¢ += 1;
@@ -91,6 +195,22 @@ public final class BatchSpartanizer {
       }
   }
 
+  private static String cacheFileName() {
+    return folder + outputDir + "/members.cache";
+  }
+
+  /** @return a budget for a single type, by the limits of the command line */
+  private static Budget budget() {
+    final Budget $ = new Budget();
+    if (maxRounds > 0)
+      $.rounds(maxRounds);
+    if (maxMillis > 0)
+      $.millis(maxMillis);
+    if (maxTips > 0)
+      $.tips(maxTips);
+    return !fallback ? $ : $.fallback(fallbacks.get());
+  }
+
   private int classesDone;
   private final String inputPath;
   private final String beforeFileName;
@@ -99,6 +219,12 @@ public final class BatchSpartanizer {
   private PrintWriter afters;
   private CSVStatistics report;
   private final String reportFileName;
+  private final String manifestFileName;
+  /** What earlier runs found in each file, if {@link #incremental} */
+  private Manifest manifest;
+  /** Texts of the types of the {@link #manifest}, which refers to them by
+   * their hashes */
+  private final TextStore texts;
 
   private BatchSpartanizer(final String path) {
     this(path, system.folder2File(path));
@@ -109,101 +235,146 @@ public final class BatchSpartanizer {
     beforeFileName = folder + outputDir + "/" + name + ".before.java";
     afterFileName = folder + outputDir + "/" + name + ".after.java";
     reportFileName = folder + outputDir + "/" + name + ".CSV";
+    manifestFileName = folder + outputDir + "/" + name + ".manifest";
+    texts = new TextStore(new File(folder + outputDir + "/" + name + ".texts"));
     final File dir = new File(folder + outputDir);
     if (!dir.exists())
       System.out.println(dir.mkdir());
   }
 
-  boolean collect(final AbstractTypeDeclaration in) {
-    final int length = in.getLength();
-    final int tokens = metrics.tokens(in + "");
-    final int nodes = count.nodes(in);
-    final int body = metrics.bodySize(in);
-    final int tide = clean(in + "").length();
-    final int essence = code.essence(in + "").length();
-    final String out = interactiveSpartanizer.fixedPoint(in + "");
-    final int length2 = out.length();
-    final int tokens2 = metrics.tokens(out);
-    final int tide2 = clean(out + "").length();
-    final int essence2 = code.essence(out + "").length();
-    final int wordCount = code.wc(code.essence(out + ""));
+  /** Compute the metrics of a type declaration, which may be done on any
+   * thread
+   * @param s the spartanizer of the current thread
+   * @param in JD
+   * @param tips incremented by the number of tips applied
+   * @return what is written about the type, as a row of the {@link Manifest};
+   *         see {@link #write(String[])} */
+  static String[] collect(final InteractiveSpartanizer s, final AbstractTypeDeclaration in, final AtomicInteger tips) {
+    final String text = in + "";
+    final Budget b = budget();
+    final String out = s.fixedPoint(text, b);
+    tips.addAndGet(b.tips());
     final ASTNode from = makeAST.COMPILATION_UNIT.from(out);
-    final int nodes2 = count.nodes(from);
-    final int body2 = metrics.bodySize(from);
-    System.err.println(++classesDone + " " + extract.category(in) + " " + extract.name(in));
-    befores.print(in);
-    afters.print(out);
-    report.summaryFileName();
-    report//
-        .put("TipperCategory", extract.category(in))//
-        .put("Name", extract.name(in))//
-        .put("Nodes1", nodes)//
-        .put("Nodes2", nodes2)//
-        .put("Δ Nodes", nodes - nodes2)//
-        .put("δ Nodes", system.d(nodes, nodes2))//
-        .put("δ Nodes %", system.p(nodes, nodes2))//
-        .put("Body", body)//
-        .put("Body2", body2)//
-        .put("Δ Body", body - body2)//
-        .put("δ Body", system.d(body, body2))//
-        .put("% Body", system.p(body, body2))//
-        .put("Length1", length)//
-        .put("Tokens1", tokens)//
-        .put("Tokens2", tokens2)//
-        .put("Δ Tokens", tokens - tokens2)//
-        .put("δ Tokens", system.d(tokens, tokens2))//
-        .put("% Tokens", system.p(tokens, tokens2))//
-        .put("Length1", length)//
-        .put("Length2", length2)//
-        .put("Δ Length", length - length2)//
-        .put("δ Length", system.d(length, length2))//
-        .put("% Length", system.p(length, length2))//
-        .put("Tide1", tide)//
-        .put("Tide2", tide2)//
-        .put("Δ Tide2", tide - tide2)//
-        .put("δ Tide2", system.d(tide, tide2))//
-        .put("δ Tide2", system.p(tide, tide2))//
-        .put("Essence1", essence)//
-        .put("Essence2", essence2)//
-        .put("Δ Essence", essence - essence2)//
-        .put("δ Essence", system.d(essence, essence2))//
-        .put("% Essence", system.p(essence, essence2))//
-        .put("Words)", wordCount).put("R(T/L)", system.ratio(length, tide)) //
-        .put("R(E/L)", system.ratio(length, essence)) //
-        .put("R(E/T)", system.ratio(tide, essence)) //
-        .put("R(B/S)", system.ratio(nodes, body)) //
-    ;
-    report.nl();
-    return false;
+    return new String[] { extract.category(in), extract.name(in), b.exhausted() == null ? "" : b + "", text, out, //
+        in.getLength() + "", out.length() + "", //
+        metrics.tokens(text) + "", metrics.tokens(out) + "", //
+        count.nodes(in) + "", count.nodes(from) + "", //
+        metrics.bodySize(in) + "", metrics.bodySize(from) + "", //
+        clean(text).length() + "", clean(out + "").length() + "", //
+        code.essence(text).length() + "", code.essence(out + "").length() + "", //
+        code.wc(code.essence(out + "")) + "" };
   }
 
-  void collect(final CompilationUnit u) {
+  /** @param row what is known of a type, as computed by
+   *        {@link #collect(InteractiveSpartanizer, AbstractTypeDeclaration, AtomicInteger)}
+   * @return an action writing it to the output files, to be run in the order
+   *         of the input */
+  Runnable write(final String[] row) {
+    final String category = row[0], name = row[1], exhausted = row[2], text = row[3], out = row[4];
+    final int length = Integer.parseInt(row[5]), length2 = Integer.parseInt(row[6]);
+    final int tokens = Integer.parseInt(row[7]), tokens2 = Integer.parseInt(row[8]);
+    final int nodes = Integer.parseInt(row[9]), nodes2 = Integer.parseInt(row[10]);
+    final int body = Integer.parseInt(row[11]), body2 = Integer.parseInt(row[12]);
+    final int tide = Integer.parseInt(row[13]), tide2 = Integer.parseInt(row[14]);
+    final int essence = Integer.parseInt(row[15]), essence2 = Integer.parseInt(row[16]);
+    final int wordCount = Integer.parseInt(row[17]);
+    return () -> {
+      System.err.println(++classesDone + " " + category + " " + name);
+      if (!exhausted.isEmpty())
+        System.err.println("  " + exhausted);
+      befores.print(text);
+      afters.print(out);
+      report.summaryFileName();
+      report//
+          .put("TipperCategory", category)//
+          .put("Name", name)//
+          .put("Nodes1", nodes)//
+          .put("Nodes2", nodes2)//
+          .put("Δ Nodes", nodes - nodes2)//
+          .put("δ Nodes", system.d(nodes, nodes2))//
+          .put("δ Nodes %", system.p(nodes, nodes2))//
+          .put("Body", body)//
+          .put("Body2", body2)//
+          .put("Δ Body", body - body2)//
+          .put("δ Body", system.d(body, body2))//
+          .put("% Body", system.p(body, body2))//
+          .put("Length1", length)//
+          .put("Tokens1", tokens)//
+          .put("Tokens2", tokens2)//
+          .put("Δ Tokens", tokens - tokens2)//
+          .put("δ Tokens", system.d(tokens, tokens2))//
+          .put("% Tokens", system.p(tokens, tokens2))//
+          .put("Length1", length)//
+          .put("Length2", length2)//
+          .put("Δ Length", length - length2)//
+          .put("δ Length", system.d(length, length2))//
+          .put("% Length", system.p(length, length2))//
+          .put("Tide1", tide)//
+          .put("Tide2", tide2)//
+          .put("Δ Tide2", tide - tide2)//
+          .put("δ Tide2", system.d(tide, tide2))//
+          .put("δ Tide2", system.p(tide, tide2))//
+          .put("Essence1", essence)//
+          .put("Essence2", essence2)//
+          .put("Δ Essence", essence - essence2)//
+          .put("δ Essence", system.d(essence, essence2))//
+          .put("% Essence", system.p(essence, essence2))//
+          .put("Words)", wordCount).put("R(T/L)", system.ratio(length, tide)) //
+          .put("R(E/L)", system.ratio(length, essence)) //
+          .put("R(E/T)", system.ratio(tide, essence)) //
+          .put("R(B/S)", system.ratio(nodes, body)) //
+      ;
+      report.nl();
+    };
+  }
+
+  static List<String[]> collect(final InteractiveSpartanizer s, final CompilationUnit u, final AtomicInteger tips) {
+    final List<String[]> $ = new ArrayList<>();
     u.accept(new ASTVisitor() {
       @Override public boolean visit(final AnnotationTypeDeclaration ¢) {
-        return collect(¢);
+        return !$.add(collect(s, ¢, tips));
       }
 
       @Override public boolean visit(final EnumDeclaration ¢) {
-        return collect(¢);
+        return !$.add(collect(s, ¢, tips));
       }
 
       @Override public boolean visit(final TypeDeclaration ¢) {
-        return collect(¢);
+        return !$.add(collect(s, ¢, tips));
       }
     });
+    return $;
   }
 
-  void collect(final File f) {
+  List<Runnable> collect(final InteractiveSpartanizer s, final File f) {
     if (!system.isTestFile(f))
       try {
-        collect(FileUtils.read(f));
+        final String text = FileUtils.read(f);
+        final Manifest.Entry e = manifest == null ? null : manifest.get(f.getAbsolutePath(), text);
+        final List<String[]> rows = e == null ? null : unstored(e.rows);
+        if (rows != null)
+          return write(rows);
+        final AtomicInteger tips = new AtomicInteger();
+        final List<String[]> $ = collect(s, (CompilationUnit) makeAST.COMPILATION_UNIT.from(text), tips);
+        if (manifest != null)
+          manifest.put(f.getAbsolutePath(), text, tips.get(), tips.get() == 0, stored($));
+        return write($);
       } catch (final IOException e) {
         monitor.infoIOException(e, "File = " + f);
       }
+    return Collections.emptyList();
   }
 
   void collect(final String javaCode) {
-    collect((CompilationUnit) makeAST.COMPILATION_UNIT.from(javaCode));
+    for (final Runnable ¢ : write(collect(interactiveSpartanizer, (CompilationUnit) makeAST.COMPILATION_UNIT.from(javaCode), new AtomicInteger())))
+      ¢.run();
+  }
+
+  private List<Runnable> write(final List<String[]> rows) {
+    final List<Runnable> $ = new ArrayList<>();
+    for (final String[] ¢ : rows)
+      $.add(write(¢));
+    return $;
   }
 
   void fire() {
@@ -249,17 +420,102 @@ public final class BatchSpartanizer {
       befores = b;
       afters = a;
       report = new CSVStatistics(reportFileName, "property");
-      for (final File ¢ : new FilesGenerator(".java").from(inputPath))
-        collect(¢);
+      if (incremental)
+        manifest = new Manifest(new File(manifestFileName),
+            Manifest.configuration(interactiveSpartanizer.toolbox, Integer.valueOf(maxRounds), Integer.valueOf(maxMillis), Integer.valueOf(maxTips), Boolean.valueOf(fallback)));
+      if (threads == 1)
+        for (final File ¢ : new FilesGenerator(".java").from(inputPath))
+          for (final Runnable r : collect(interactiveSpartanizer, ¢))
+            r.run();
+      else
+        collectInParallel();
     } catch (final IOException x) {
       x.printStackTrace();
       System.err.println(classesDone + " files processed; processing of " + inputPath + " failed for some I/O reason");
     }
+    if (manifest != null)
+      try {
+        manifest.save();
+        final Set<String> kept = new HashSet<>();
+        for (final String[] ¢ : manifest.rows())
+          kept.addAll(Arrays.asList(¢[3], ¢[4]));
+        texts.retain(kept);
+        System.err.println("\n Manifest: " + manifest.hits() + " files unchanged, " + manifest.misses() + " processed; in " + manifestFileName);
+      } catch (final IOException x) {
+        monitor.infoIOException(x, manifestFileName);
+      }
     applyEssenceCommandLine();
     System.err.print("\n Done: " + classesDone + " files processed.");
     System.err.print("\n Summary: " + report.close());
   }
 
+  /** @param rows as computed by
+   *        {@link #collect(InteractiveSpartanizer, AbstractTypeDeclaration, AtomicInteger)}
+   * @return the rows, with the texts of the types before and after kept in
+   *         {@link #texts}, and replaced by their hashes, for the
+   *         {@link #manifest}
+   * @throws IOException */
+  private List<String[]> stored(final List<String[]> rows) throws IOException {
+    final List<String[]> $ = new ArrayList<>();
+    for (final String[] ¢ : rows) {
+      final String[] row = ¢.clone();
+      row[3] = texts.put(¢[3]);
+      row[4] = texts.put(¢[4]);
+      $.add(row);
+    }
+    return $;
+  }
+
+  /** @param rows as found in the {@link #manifest}
+   * @return the rows, with the texts of the types restored from
+   *         {@link #texts}, or <code><b>null</b></code> if any of them is
+   *         no longer kept */
+  private List<String[]> unstored(final List<String[]> rows) {
+    final List<String[]> $ = new ArrayList<>();
+    for (final String[] ¢ : rows) {
+      final String[] row = ¢.clone();
+      row[3] = texts.get(¢[3]);
+      row[4] = texts.get(¢[4]);
+      if (row[3] == null || row[4] == null)
+        return null;
+      $.add(row);
+    }
+    return $;
+  }
+
+  /** Process files on a work stealing pool of {@link #threads} threads. Results
+   * are written in the order of the input, and at most a few files per thread
+   * are kept waiting to be written. Workers run in the {@link Session} of the
+   * caller. */
+  private void collectInParallel() {
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+    final Deque<Future<List<Runnable>>> pending = new ArrayDeque<>();
+    final Session session = Session.current();
+    try {
+      for (final File ¢ : new FilesGenerator(".java").from(inputPath)) {
+        pending.add(pool.submit(() -> session.call(() -> collect(spartanizers.get(), ¢))));
+        if (pending.size() >= 4 * threads)
+          write(pending.remove());
+      }
+      while (!pending.isEmpty())
+        write(pending.remove());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static void write(final Future<List<Runnable>> f) {
+    try {
+      for (final Runnable ¢ : f.get())
+        ¢.run();
+    } catch (final ExecutionException x) {
+      monitor.logEvaluationError(x.getCause());
+    } catch (final InterruptedException x) {
+      monitor.logCancellationRequest(f, x);
+      Thread.currentThread().interrupt();
+    }
+  }
+
   private void runWordCount() {
     system.bash("wc " + separate.these(beforeFileName, afterFileName, system.essenced(beforeFileName), system.essenced(afterFileName)));
   }
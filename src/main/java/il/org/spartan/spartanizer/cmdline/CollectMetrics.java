@@ -23,9 +23,28 @@ public final class CollectMetrics {
   private static String OUTPUT_Tips = "/tmp/tips.csv";
   private static CSVStatistics output = init(OUTPUT, "property");
   private static CSVStatistics Tips = init(OUTPUT_Tips, "tips");
+  private static String OUTPUT_Manifest = "/tmp/metrics.manifest";
+  /** What earlier runs found in each file, if the first argument is
+   * <code>-m</code>; files which did not change since are not processed */
+  private static Manifest manifest;
+  /** What is written about the current file, as rows of the {@link Manifest}:
+   * the name of the output, and either a key, a type and a value, or nothing,
+   * for the end of a line */
+  private static List<String[]> rows;
 
   public static void main(final String[] where) {
-    go(where.length != 0 ? where : new String[] { "." });
+    final boolean incremental = where.length != 0 && "-m".equals(where[0]);
+    final String[] paths = !incremental ? where : Arrays.copyOfRange(where, 1, where.length);
+    if (incremental)
+      manifest = new Manifest(new File(OUTPUT_Manifest), Manifest.configuration(Toolbox.defaultInstance()));
+    go(paths.length != 0 ? paths : new String[] { "." });
+    if (manifest != null)
+      try {
+        manifest.save();
+        System.err.println(manifest.hits() + " files unchanged, " + manifest.misses() + " processed; manifest is in " + OUTPUT_Manifest);
+      } catch (final IOException e) {
+        System.err.println(e.getMessage());
+      }
     System.err.println("Your output should be here: " + output.close());
   }
 
@@ -39,30 +58,43 @@ public final class CollectMetrics {
   }
 
   // TODO Yossi Gil: eliminate warning
-  private static void collectTips(@SuppressWarnings("unused") final String __, final CompilationUnit before) {
-    reportTips(new Trimmer().collectSuggesions(before));
+  private static int collectTips(@SuppressWarnings("unused") final String __, final CompilationUnit before) {
+    final List<Tip> $ = new Trimmer().collectSuggesions(before);
+    reportTips($);
+    return $.size();
   }
 
   private static void go(final File f) {
     try {
+      final String javaCode = FileUtils.read(f);
+      final Manifest.Entry e = manifest == null ? null : manifest.get(f.getAbsolutePath(), javaCode);
+      if (e != null) {
+        replay(e.rows);
+        return;
+      }
+      rows = new ArrayList<>();
       // This line is going to give you trouble if you process class by class.
-      output.put("File", f.getName());
-      Tips.put("File", f.getName());
-      go(FileUtils.read(f));
+      put(output, "File", f.getName());
+      put(Tips, "File", f.getName());
+      final int tips = go(javaCode);
+      if (manifest != null)
+        manifest.put(f.getAbsolutePath(), javaCode, tips, tips == 0, rows);
     } catch (final IOException e) {
       System.err.println(e.getMessage());
     }
   }
 
-  private static void go(final String javaCode) {
-    output.put("Characters", javaCode.length());
+  /** @return number of tips found in the code */
+  private static int go(final String javaCode) {
+    put(output, "Characters", javaCode.length());
     final CompilationUnit before = (CompilationUnit) makeAST.COMPILATION_UNIT.from(javaCode);
     report("Before-", before);
-    collectTips(javaCode, before);
+    final int $ = collectTips(javaCode, before);
     final CompilationUnit after = spartanize(javaCode);
     assert after != null;
     report("After-", after);
-    output.nl();
+    nl(output);
+    return $;
   }
 
   private static void go(final String[] where) {
@@ -70,6 +102,39 @@ public final class CollectMetrics {
       go(¢);
   }
 
+  private static String name(final CSVStatistics ¢) {
+    return ¢ == output ? "output" : "tips";
+  }
+
+  private static void nl(final CSVStatistics ¢) {
+    ¢.nl();
+    rows.add(new String[] { name(¢) });
+  }
+
+  private static void put(final CSVStatistics s, final String key, final int value) {
+    s.put(key, value);
+    rows.add(new String[] { name(s), key, "int", value + "" });
+  }
+
+  private static void put(final CSVStatistics s, final String key, final String value) {
+    s.put(key, value);
+    rows.add(new String[] { name(s), key, "string", value });
+  }
+
+  /** Write again what was written about a file by an earlier run
+   * @param rs JD */
+  private static void replay(final List<String[]> rs) {
+    for (final String[] ¢ : rs) {
+      final CSVStatistics s = "output".equals(¢[0]) ? output : Tips;
+      if (¢.length == 1)
+        s.nl();
+      else if ("int".equals(¢[2]))
+        s.put(¢[1], Integer.parseInt(¢[3]));
+      else
+        s.put(¢[1], ¢[3]);
+    }
+  }
+
   private static CSVStatistics init(final String outputDir, final String property) {
     try {
       return new CSVStatistics(outputDir, property);
@@ -89,35 +154,35 @@ public final class CollectMetrics {
     // TODO Matteo: make sure that the counting does not include comments.
     // Do
     // this by adding stuff to the metrics suite.
-    output.put(prefix + "Length", ¢.getLength());
-    output.put(prefix + "Count", count.nodes(¢));
-    output.put(prefix + "Non whites", count.nonWhiteCharacters(¢));
-    output.put(prefix + "Condensed size", metrics.condensedSize(¢));
-    output.put(prefix + "Lines", count.lines(¢));
-    output.put(prefix + "Dexterity", metrics.dexterity(¢));
-    output.put(prefix + "Leaves", metrics.leaves(¢));
-    output.put(prefix + "Nodes", metrics.nodes(¢));
-    output.put(prefix + "Internals", metrics.internals(¢));
-    output.put(prefix + "Vocabulary", metrics.vocabulary(¢));
-    output.put(prefix + "Literacy", metrics.literacy(¢));
-    output.put(prefix + "Imports", count.imports(¢));
-    output.put(prefix + "No Imports", count.noimports(¢));
+    put(output, prefix + "Length", ¢.getLength());
+    put(output, prefix + "Count", count.nodes(¢));
+    put(output, prefix + "Non whites", count.nonWhiteCharacters(¢));
+    put(output, prefix + "Condensed size", metrics.condensedSize(¢));
+    put(output, prefix + "Lines", count.lines(¢));
+    put(output, prefix + "Dexterity", metrics.dexterity(¢));
+    put(output, prefix + "Leaves", metrics.leaves(¢));
+    put(output, prefix + "Nodes", metrics.nodes(¢));
+    put(output, prefix + "Internals", metrics.internals(¢));
+    put(output, prefix + "Vocabulary", metrics.vocabulary(¢));
+    put(output, prefix + "Literacy", metrics.literacy(¢));
+    put(output, prefix + "Imports", count.imports(¢));
+    put(output, prefix + "No Imports", count.noimports(¢));
   }
 
   private static void reportTips(final List<Tip> ¢) {
     for (final Tip $ : ¢) {
-      Tips.put("description", $.description);
-      Tips.put("from", $.from);
-      Tips.put("to", $.to);
-      Tips.put("linenumber", $.lineNumber);
-      Tips.nl();
+      put(Tips, "description", $.description);
+      put(Tips, "from", $.from);
+      put(Tips, "to", $.to);
+      put(Tips, "linenumber", $.lineNumber);
+      nl(Tips);
     }
   }
 
   private static CompilationUnit spartanize(final String javaCode) {
     final Trimmer t = new Trimmer();
     final String spartanized = t.fixed(javaCode);
-    output.put("Characters", spartanized.length());
+    put(output, "Characters", spartanized.length());
     return (CompilationUnit) makeAST.COMPILATION_UNIT.from(spartanized);
   }
 }
\ No newline at end of file
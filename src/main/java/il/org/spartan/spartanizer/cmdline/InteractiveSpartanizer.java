@@ -29,9 +29,12 @@ public final class InteractiveSpartanizer {
     return $;
   }
 
-  public Toolbox toolbox = Toolbox.defaultInstance();
+  public Toolbox toolbox = Session.current().toolbox();
 
   public InteractiveSpartanizer disable(final Class<? extends TipperCategory> ¢) {
+    if (!changed)
+      toolbox = Toolbox.muttableDefaultInstance();
+    changed = true;
     toolbox.disable(¢);
     return this;
   }
@@ -43,12 +46,19 @@ public final class InteractiveSpartanizer {
     return new Trimmer(toolbox).fixed(from);
   }
 
+  /** @param from what to process
+   * @param b limits of the work on the text
+   * @return trimmed text, as computed by {@link Trimmer#fixed(String, Budget)} */
+  public String fixedPoint(final String from, final Budget b) {
+    return new Trimmer(toolbox).fixed(from, b);
+  }
+
   ASTVisitor collect(final List<Tip> $) {
     return new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
         final Tipper<N> t = toolbox.firstTipper(n);
         try {
-          return t == null || t.cantTip(n) || Trimmer.prune(t.tip(n, exclude), $);
+          return t == null || !TipperStatistics.canTip(t, n) || Trimmer.prune(TipperStatistics.tip(t, n, exclude), $);
         } catch (final TipperFailure e) {
           e.printStackTrace();
         }
@@ -0,0 +1,237 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** What a command line run found in each of the files it processed, kept in a
+ * file of its output directory, so that the next run skips the files which
+ * did not change since.
+ * <p>
+ * The entry of a file holds a hash of its content, a hash of the
+ * configuration it was processed with, i.e., the tippers, the options and the
+ * build of the spartanizer, and the results: the number of tips, whether the
+ * file was at fixed point, and rows of data, e.g., metrics, in whatever form
+ * the tool which wrote them reads them back. An entry is only found if both
+ * hashes match.
+ * <p>
+ * The manifest is a text file, one line to a file processed, followed by a
+ * line to each row; it is written as a whole, through a temporary file, so
+ * that an interrupted run leaves the previous manifest intact.
+ * @since 2016 */
+public final class Manifest {
+  /** What was found in a file */
+  public static final class Entry {
+    /** Hash of the content of the file */
+    public final String hash;
+    /** Hash of the configuration the file was processed with */
+    public final long configuration;
+    /** Number of tips applied to the file */
+    public final int tips;
+    /** Whether the file was at fixed point */
+    public final boolean fixed;
+    /** Rows of data found in the file */
+    public final List<String[]> rows;
+
+    Entry(final String hash, final long configuration, final int tips, final boolean fixed, final List<String[]> rows) {
+      this.hash = hash;
+      this.configuration = configuration;
+      this.tips = tips;
+      this.fixed = fixed;
+      this.rows = rows;
+    }
+  }
+
+  private static final String header = "spartan-manifest 1";
+
+  /** @param toolbox the tippers
+   * @param options whatever else changes the results, e.g., limits
+   * @return a hash of the configuration of a run */
+  public static long configuration(final Toolbox toolbox, final Object... options) {
+    long $ = toolbox.signature() * 0x100000001b3L ^ build();
+    for (final Object ¢ : options)
+      $ = ($ ^ Objects.hashCode(¢)) * 0x100000001b3L;
+    return $;
+  }
+
+  /** @param ¢ JD
+   * @return a SHA-256 hash of the parameter */
+  public static String hash(final String ¢) {
+    try {
+      final StringBuilder $ = new StringBuilder();
+      for (final byte b : MessageDigest.getInstance("SHA-256").digest(¢.getBytes(StandardCharsets.UTF_8)))
+        $.append(String.format("%02x", Byte.valueOf(b)));
+      return $ + "";
+    } catch (final NoSuchAlgorithmException x) {
+      throw new AssertionError(x);
+    }
+  }
+
+  /** @return a hash of the jar the spartanizer runs from, or zero if it runs
+   *         from a directory of classes */
+  static long build() {
+    final CodeSource s = Toolbox.class.getProtectionDomain().getCodeSource();
+    if (s == null || s.getLocation() == null)
+      return 0;
+    try {
+      final File $ = new File(s.getLocation().toURI());
+      return !$.isFile() ? 0 : 31 * $.length() + $.lastModified();
+    } catch (final URISyntaxException | IllegalArgumentException x) {
+      monitor.logEvaluationError(x);
+      return 0;
+    }
+  }
+
+  static String escape(final String ¢) {
+    return ¢.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+  }
+
+  static String unescape(final String s) {
+    final StringBuilder $ = new StringBuilder();
+    for (int ¢ = 0; ¢ < s.length(); ++¢)
+      if (s.charAt(¢) != '\\' || ¢ == s.length() - 1)
+        $.append(s.charAt(¢));
+      else
+        switch (s.charAt(++¢)) {
+          case 't':
+            $.append('\t');
+            break;
+          case 'n':
+            $.append('\n');
+            break;
+          case 'r':
+            $.append('\r');
+            break;
+          default:
+            $.append(s.charAt(¢));
+        }
+    return $ + "";
+  }
+
+  private static String[] fields(final String line) {
+    final String[] $ = line.split("\t", -1);
+    for (int ¢ = 0; ¢ < $.length; ++¢)
+      $[¢] = unescape($[¢]);
+    return $;
+  }
+
+  private final File file;
+  private final long configuration;
+  /** Entries, by the path of their file */
+  private final Map<String, Entry> entries = new TreeMap<>();
+  private int hits, misses;
+
+  /** Read a manifest, if there is one
+   * @param file where the manifest is kept
+   * @param configuration hash of the configuration of the current run, see
+   *        {@link #configuration(Toolbox, Object...)} */
+  public Manifest(final File file, final long configuration) {
+    this.file = file;
+    this.configuration = configuration;
+    if (file.exists())
+      try {
+        read(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+      } catch (final IOException x) {
+        monitor.infoIOException(x, "Manifest " + file + " is ignored");
+      }
+  }
+
+  /** @param path path of a file
+   * @param content what the file holds now
+   * @return the entry of the file, or <code><b>null</b></code> if the file
+   *         changed, was processed with some other configuration, or was not
+   *         processed at all */
+  public synchronized Entry get(final String path, final String content) {
+    final Entry $ = entries.get(path);
+    if ($ == null || $.configuration != configuration || !$.hash.equals(hash(content))) {
+      ++misses;
+      return null;
+    }
+    ++hits;
+    return $;
+  }
+
+  /** @return how many files were found unchanged so far */
+  public synchronized int hits() {
+    return hits;
+  }
+
+  /** @return how many files were not found, or found changed, so far */
+  public synchronized int misses() {
+    return misses;
+  }
+
+  /** Record what was found in a file
+   * @param path path of the file
+   * @param content what the file held when processed
+   * @param tips number of tips applied to the file
+   * @param fixed whether the file was at fixed point
+   * @param rows rows of data found in the file */
+  public synchronized void put(final String path, final String content, final int tips, final boolean fixed, final List<String[]> rows) {
+    entries.put(path, new Entry(hash(content), configuration, tips, fixed, new ArrayList<>(rows)));
+  }
+
+  /** Write the manifest, dropping the entries of files which no longer exist
+   * @throws IOException */
+  public synchronized void save() throws IOException {
+    entries.keySet().removeIf(¢ -> !new File(¢).exists());
+    final File $ = new File(file.getPath() + ".tmp");
+    try (PrintWriter w = new PrintWriter(new OutputStreamWriter(new FileOutputStream($), StandardCharsets.UTF_8))) {
+      w.println(header);
+      for (final Map.Entry<String, Entry> ¢ : entries.entrySet()) {
+        final Entry e = ¢.getValue();
+        w.println(line("file", ¢.getKey(), e.hash, e.configuration + "", e.tips + "", e.fixed + ""));
+        for (final String[] r : e.rows)
+          w.println(line("row", r));
+      }
+    }
+    Files.move($.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** @return rows of all entries, in the order of their files */
+  public synchronized List<String[]> rows() {
+    final List<String[]> $ = new ArrayList<>();
+    for (final Entry ¢ : entries.values())
+      $.addAll(¢.rows);
+    return $;
+  }
+
+  /** @return number of entries */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private static String line(final String kind, final String... fields) {
+    final StringBuilder $ = new StringBuilder(kind);
+    for (final String ¢ : fields)
+      $.append('\t').append(escape(¢));
+    return $ + "";
+  }
+
+  private void read(final List<String> lines) {
+    if (lines.isEmpty() || !header.equals(lines.get(0)))
+      return;
+    List<String[]> rows = null;
+    for (final String line : lines.subList(1, lines.size())) {
+      final String[] ¢ = fields(line);
+      if ("row".equals(¢[0]) && rows != null)
+        rows.add(Arrays.copyOfRange(¢, 1, ¢.length));
+      else if ("file".equals(¢[0]) && ¢.length == 6)
+        try {
+          rows = new ArrayList<>();
+          entries.put(¢[1], new Entry(¢[2], Long.parseLong(¢[3]), Integer.parseInt(¢[4]), Boolean.parseBoolean(¢[5]), rows));
+        } catch (final NumberFormatException x) {
+          monitor.logEvaluationError(x);
+          rows = null;
+        }
+      else
+        rows = null;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import il.org.spartan.plugin.*;
+
+/** Results of spartanizing members, e.g., methods, kept by a hash of their
+ * text, so that a member which did not change since it was last spartanized
+ * is spliced in as it was then, rather than tipped again. Useful where large
+ * files are edited a member at a time.
+ * <p>
+ * The key of a member hashes, with its text, the text around it which may
+ * affect the tips found in it, e.g., the <em>shell</em> of
+ * {@link il.org.spartan.spartanizer.dispatch.DirtyRegions}, the signature of
+ * the tippers, see
+ * {@link il.org.spartan.spartanizer.dispatch.Toolbox#signature()}, and the
+ * build of the spartanizer, as in {@link Manifest#configuration}, so that an
+ * upgrade which changes what a tipper does drops the cache. Texts are
+ * hashed exactly as they are, comments and white space included, since the
+ * cached result keeps them.
+ * <p>
+ * The cache holds a bounded number of entries, dropping the least recently
+ * used. It is kept in a text file, a line to an entry, from the least to the
+ * most recently used, written as a whole through a temporary file.
+ * @since 2016 */
+public final class MemberCache {
+  /** What spartanizing a member made of it */
+  public static final class Entry {
+    /** Text of the member at fixed point */
+    public final String output;
+    /** Names of the tippers applied to the member, in order */
+    public final List<String> tips;
+
+    Entry(final String output, final List<String> tips) {
+      this.output = output;
+      this.tips = tips;
+    }
+  }
+
+  private static final String header = "spartan-member-cache 1";
+  /** The build of the spartanizer, see {@link Manifest#build()} */
+  private static final long build = Manifest.build();
+  /** Default number of entries kept */
+  public static final int CAPACITY = 1 << 16;
+
+  /** @param signature signature of the tippers
+   * @param context the text around the member which may affect its tips; empty
+   *        if the member is spartanized alone
+   * @param member text of the member
+   * @return the key of the member */
+  public static String key(final long signature, final String context, final String member) {
+    return Manifest.hash(signature + "\n" + build + "\n" + context.length() + "\n" + context + member);
+  }
+
+  private final File file;
+  private final Map<String, Entry> entries;
+  private int hits, misses;
+
+  /** An empty cache, kept only in memory
+   * @param capacity maximal number of entries */
+  public MemberCache(final int capacity) {
+    this(null, capacity);
+  }
+
+  /** Read a cache, if there is one
+   * @param file where the cache is kept; may be <code><b>null</b></code>, in
+   *        which case it is kept only in memory
+   * @param capacity maximal number of entries */
+  public MemberCache(final File file, final int capacity) {
+    this.file = file;
+    entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      static final long serialVersionUID = 1L;
+
+      @Override protected boolean removeEldestEntry(@SuppressWarnings("unused") final Map.Entry<String, Entry> __) {
+        return size() > capacity;
+      }
+    };
+    if (file != null && file.exists())
+      try {
+        read(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+      } catch (final IOException x) {
+        monitor.infoIOException(x, "Member cache " + file + " is ignored");
+      }
+  }
+
+  /** @param key key of a member, see {@link #key(long, String, String)}
+   * @return what the member was made of, or <code><b>null</b></code> if it is
+   *         not in the cache */
+  public synchronized Entry get(final String key) {
+    final Entry $ = entries.get(key);
+    if ($ == null)
+      ++misses;
+    else
+      ++hits;
+    return $;
+  }
+
+  /** @return how many members were found so far */
+  public synchronized int hits() {
+    return hits;
+  }
+
+  /** @return how many members were not found so far */
+  public synchronized int misses() {
+    return misses;
+  }
+
+  /** Record what a member was made of
+   * @param key key of the member, see {@link #key(long, String, String)}
+   * @param output text of the member at fixed point
+   * @param tips names of the tippers applied to the member, in order */
+  public synchronized void put(final String key, final String output, final List<String> tips) {
+    entries.put(key, new Entry(output, Collections.unmodifiableList(new ArrayList<>(tips))));
+  }
+
+  /** Write the cache, if it is kept in a file
+   * @throws IOException */
+  public synchronized void save() throws IOException {
+    if (file == null)
+      return;
+    final File $ = new File(file.getPath() + ".tmp");
+    try (PrintWriter w = new PrintWriter(new OutputStreamWriter(new FileOutputStream($), StandardCharsets.UTF_8))) {
+      w.println(header);
+      for (final Map.Entry<String, Entry> ¢ : entries.entrySet()) {
+        final StringBuilder line = new StringBuilder(¢.getKey()).append('\t').append(Manifest.escape(¢.getValue().output));
+        for (final String t : ¢.getValue().tips)
+          line.append('\t').append(Manifest.escape(t));
+        w.println(line);
+      }
+    }
+    Files.move($.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** @return number of entries */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void read(final List<String> lines) {
+    if (lines.isEmpty() || !header.equals(lines.get(0)))
+      return;
+    for (final String line : lines.subList(1, lines.size())) {
+      final String[] ¢ = line.split("\t", -1);
+      if (¢.length < 2)
+        continue;
+      final List<String> tips = new ArrayList<>();
+      for (int i = 2; i < ¢.length; ++i)
+        tips.add(Manifest.unescape(¢[i]));
+      put(¢[0], Manifest.unescape(¢[1]), tips);
+    }
+  }
+}
@@ -28,14 +28,16 @@ public class Spartanizer$Applicator {
   private PrintStream befores;
   private PrintStream afters;
   private CSVStatistics report;
-  static List<Class<? extends BodyDeclaration>> selectedNodeTypes = as.list(MethodDeclaration.class);
+  List<Class<? extends BodyDeclaration>> selectedNodeTypes = as.list(MethodDeclaration.class);
   CSVStatistics spectrumStats; // = new CSVStatistics(spectrumFileName,
                                // "property");
   final ChainStringToIntegerMap spectrum = new ChainStringToIntegerMap();
+  /** Where names of the tippers applied go, if anywhere */
+  private List<String> applied;
 
   /** Instantiates this class */
   public Spartanizer$Applicator() {
-    this(Toolbox.defaultInstance());
+    this(Session.current().toolbox());
   }
 
   /** @param defaultInstance */
@@ -159,6 +161,29 @@ public class Spartanizer$Applicator {
   /** @param input
    * @return */
   private String fixedPoint(final String from) {
+    final MemberCache c = Session.current().cache();
+    if (c == null)
+      return fixedPoint(from, null);
+    final String key = MemberCache.key(Session.current().toolbox().signature(), "", from);
+    final MemberCache.Entry e = c.get(key);
+    if (e == null) {
+      final List<String> tips = new ArrayList<>();
+      final String $ = fixedPoint(from, tips);
+      c.put(key, $, tips);
+      return $;
+    }
+    tippersAppliedOnCurrentObject += e.tips.size();
+    for (final String ¢ : e.tips)
+      spectrum.put(¢, spectrum.containsKey(¢) ? spectrum.get(¢) + 1 : 1);
+    return e.output;
+  }
+
+  /** @param from what to process
+   * @param tips where to add the names of the tippers applied; may be
+   *        <code><b>null</b></code>
+   * @return the text at fixed point */
+  private String fixedPoint(final String from, final List<String> tips) {
+    applied = tips;
     for (final Document $ = new Document(from);;) {
       final BodyDeclaration u = (BodyDeclaration) makeAST.CLASS_BODY_DECLARATIONS.from($.get());
       final ASTRewrite r = createRewrite(u);
@@ -183,10 +208,15 @@ public class Spartanizer$Applicator {
   }
 
   public void consolidateTips(final ASTRewrite r, final BodyDeclaration u) {
-    toolbox = Toolbox.defaultInstance();
+    toolbox = Session.current().toolbox();
+    final Trace trace = Session.current().trace();
+    final boolean log = TrimmerLog.on();
     u.accept(new DispatchingVisitor() {
       @Override protected <N extends ASTNode> boolean go(final N n) {
-        TrimmerLog.visitation(n);
+        if (trace != null)
+          trace.visitation(n);
+        if (log)
+          TrimmerLog.visitation(n);
         if (disabling.on(n))
           return true;
         Tipper<N> tipper = null;
@@ -199,7 +229,9 @@ public class Spartanizer$Applicator {
           return true;
         Tip s = null;
         try {
-          s = tipper.tip(n, exclude);
+          s = TipperStatistics.tip(tipper, n, exclude);
+          if (trace != null)
+            trace.tip(tipper, n);
           tick(n, tipper);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
@@ -208,8 +240,16 @@ public class Spartanizer$Applicator {
         }
         if (s != null) {
           ++tippersAppliedOnCurrentObject;
+          if (applied != null)
+            applied.add(monitor.className(tipper.getClass()));
           // tick2(tipper); // save coverage info
-          TrimmerLog.application(r, s);
+          TipperStatistics.applied(tipper);
+          if (trace != null)
+            trace.application(tipper, n);
+          if (log)
+            TrimmerLog.application(r, s);
+          else
+            TipperStatistics.go(s, r, null);
         }
         return true;
       }
@@ -230,7 +270,8 @@ public class Spartanizer$Applicator {
        * @throws TipperFailure */
       <N extends ASTNode> void tick(final N n, final Tipper<N> w) throws TipperFailure {
         tick(w);
-        TrimmerLog.tip(w, n);
+        if (log)
+          TrimmerLog.tip(w, n);
       }
 
       /** @param w */
@@ -251,7 +292,7 @@ public class Spartanizer$Applicator {
     return false;
   }
 
-  @SuppressWarnings("static-method") public void selectedNodes(@SuppressWarnings("unchecked") final Class<? extends BodyDeclaration>... ¢) {
+  public void selectedNodes(@SuppressWarnings("unchecked") final Class<? extends BodyDeclaration>... ¢) {
     selectedNodeTypes = as.list(¢);
   }
 
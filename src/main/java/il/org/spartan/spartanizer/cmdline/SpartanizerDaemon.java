@@ -0,0 +1,350 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.security.*;
+import java.util.concurrent.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** A long lived spartanizer, which keeps a warm engine for clients that would
+ * otherwise pay, on each file, the start up of the JVM, of JDT and of the
+ * tippers, e.g., a pre-commit hook.
+ * <p>
+ * Requests come from the standard input, or from connections to a port of the
+ * loopback interface. A connection is answered only if its first line is
+ * <code>TOKEN</code> <i>secret</i>, where the secret is the content of
+ * {@link #tokenFile}, which only the user may read, and which is written anew
+ * whenever the daemon starts. Files are spartanized only if they are under the
+ * root of the daemon, by default the directory it starts in. A request is a
+ * line:
+ * <ul>
+ * <li><code>FILE</code> <i>path</i>: the file spartanized;
+ * <li><code>WRITE</code> <i>path</i>: spartanize the file in place; it is
+ * written only if it changed;
+ * <li><code>TIPS</code> <i>path</i>: the tips found in the file, a line to
+ * each, <i>line</i><code>: </code><i>description</i>;
+ * <li><code>SOURCE</code> <i>n</i>, followed by <i>n</i> bytes of text: the
+ * text spartanized;
+ * <li><code>PING</code>: nothing;
+ * <li><code>QUIT</code>: close the connection; <code>STOP</code>: stop the
+ * daemon.
+ * </ul>
+ * The answer is a line <code>OK</code> <i>n</i>, followed by <i>n</i> bytes of
+ * text, or a line <code>ERROR</code> <i>message</i>. Texts are in UTF-8. E.g.,
+ * in bash:
+ *
+ * <pre>
+ * exec 3&lt;&gt;/dev/tcp/127.0.0.1/7007
+ * echo "TOKEN $(cat ~/.spartan-daemon-token)" &gt;&amp;3
+ * echo "WRITE $PWD/A.java" &gt;&amp;3
+ * read -r answer &lt;&amp;3
+ * </pre>
+ *
+ * @since 2016 */
+public final class SpartanizerDaemon {
+  /** A text, to load and warm up the engine before the first request */
+  private static final String warmup = "class A {\n  int f(int x) {\n    int y = x;\n    if (y > 0)\n      return y;\n    else\n      return -y;\n  }\n}\n";
+  /** Where the secret of connections to the daemon is kept */
+  static final Path tokenFile = Paths.get(System.getProperty("user.home"), ".spartan-daemon-token");
+  /** Largest text of a <code>SOURCE</code> request, in bytes */
+  static final int maxText = 1 << 24;
+  /** Longest request line, in bytes */
+  static final int maxLine = 1 << 16;
+
+  public static void main(final String[] args) {
+    final SpartanizerDaemon $ = new SpartanizerDaemon();
+    int port = -1;
+    boolean stdin = false;
+    for (int ¢ = 0; ¢ < args.length;)
+      if ("-p".equals(args[¢])) {
+        port = Integer.parseInt(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-s".equals(args[¢])) {
+        stdin = true;
+        ¢ += 1;
+      } else if ("-j".equals(args[¢])) {
+        $.threads = Math.max(1, Integer.parseInt(args[¢ + 1]));
+        ¢ += 2;
+      } else if ("-t".equals(args[¢])) {
+        $.maxMillis = Integer.parseInt(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-r".equals(args[¢])) {
+        $.root = Paths.get(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-k".equals(args[¢])) {
+        $.session.useCache(new MemberCache(MemberCache.CAPACITY));
+        ¢ += 1;
+      } else {
+        System.err.println(args[¢]);
+        System.err.println("[ERROR]: Something went wrong!");
+        ++¢;
+      }
+    if (port < 0 && !stdin) {
+      printHelpPrompt();
+      return;
+    }
+    $.warm();
+    try {
+      if (stdin)
+        $.serve(System.in, System.out);
+      else {
+        final String token = token(tokenFile);
+        final ServerSocket s = listen(port);
+        System.err.println("Spartanizer daemon listens on " + s.getLocalSocketAddress() + ", with the token in " + tokenFile);
+        $.serve(s, token);
+      }
+    } catch (final IOException x) {
+      monitor.infoIOException(x, "Spartanizer daemon stopped");
+    }
+  }
+
+  static void printHelpPrompt() {
+    System.out.println("Spartanizer daemon: keeps a warm engine, and spartanizes files on request");
+    System.out.println("");
+    System.out.println("Options:");
+    System.out.println("  -p PORT  port: answer requests on PORT of the loopback interface, to connections which send first TOKEN and the content of "
+        + tokenFile);
+    System.out.println("  -s       standard input: answer requests read from the standard input on the standard output");
+    System.out.println("  -j N     jobs: answer at most N connections at once; default is the number of processors");
+    System.out.println("  -t MS    time: stop spartanizing a file after MS milliseconds");
+    System.out.println("  -r DIR   root: spartanize only files under DIR; default is the current directory");
+    System.out.println("  -k       cache: splice methods and other members which did not change since they were last spartanized");
+    System.out.println("");
+    System.out.println("Requests: TOKEN secret, FILE path, WRITE path, TIPS path, SOURCE n followed by n bytes, PING, QUIT, STOP");
+    System.out.println("Answers: OK n followed by n bytes, or ERROR message");
+    System.out.println("");
+  }
+
+  /** @param port JD, or zero for any free port
+   * @return a socket listening on the port of the loopback interface
+   * @throws IOException */
+  static ServerSocket listen(final int port) throws IOException {
+    return new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+  }
+
+  private static void answer(final OutputStream out, final String ¢) throws IOException {
+    final byte[] $ = ¢.getBytes(StandardCharsets.UTF_8);
+    out.write(("OK " + $.length + "\n").getBytes(StandardCharsets.UTF_8));
+    out.write($);
+    out.flush();
+  }
+
+  /** @param in JD
+   * @param out where the refusal goes
+   * @param token JD
+   * @return whether the first line of the input is <code>TOKEN</code>
+   *         followed by the token
+   * @throws IOException */
+  private static boolean authentic(final InputStream in, final OutputStream out, final String token) throws IOException {
+    final String $ = line(in);
+    if ($ != null && MessageDigest.isEqual(("TOKEN " + token).getBytes(StandardCharsets.UTF_8), $.getBytes(StandardCharsets.UTF_8)))
+      return true;
+    error(out, new SecurityException("Wrong token; it is in " + tokenFile));
+    return false;
+  }
+
+  /** @param in JD
+   * @param n JD
+   * @return the next <i>n</i> bytes of the input
+   * @throws IOException
+   * @throws IllegalArgumentException if <i>n</i> is negative, or larger than
+   *         {@link #maxText}, in which case the bytes are skipped */
+  private static byte[] bytes(final InputStream in, final int n) throws IOException {
+    if (n < 0)
+      throw new IllegalArgumentException("Text of " + n + " bytes");
+    if (n > maxText) {
+      skip(in, n);
+      throw new IllegalArgumentException("Text of " + n + " bytes is longer than " + maxText);
+    }
+    final byte[] $ = new byte[n];
+    for (int ¢ = 0; ¢ < n;) {
+      final int read = in.read($, ¢, n - ¢);
+      if (read < 0)
+        throw new EOFException("Text ends after " + ¢ + " of " + n + " bytes");
+      ¢ += read;
+    }
+    return $;
+  }
+
+  private static void skip(final InputStream in, final long n) throws IOException {
+    for (long ¢ = n; ¢ > 0; --¢) {
+      final long skipped = in.skip(¢);
+      if (skipped > 0)
+        ¢ -= skipped - 1;
+      else if (in.read() < 0)
+        return;
+    }
+  }
+
+  private static void error(final OutputStream out, final Throwable x) throws IOException {
+    out.write(("ERROR " + (x + "").replace('\n', ' ').replace('\r', ' ') + "\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  /** @param in JD
+   * @return the next line of the input, or <code><b>null</b></code> at its
+   *         end */
+  private static String line(final InputStream in) throws IOException {
+    final ByteArrayOutputStream $ = new ByteArrayOutputStream();
+    for (int ¢ = in.read(); ¢ != '\n'; ¢ = in.read()) {
+      if (¢ < 0)
+        return $.size() == 0 ? null : $.toString("UTF-8");
+      if ($.size() >= maxLine)
+        throw new IOException("Request longer than " + maxLine + " bytes");
+      $.write(¢);
+    }
+    final String line = $.toString("UTF-8");
+    return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+  }
+
+  private static String read(final Path ¢) throws IOException {
+    return new String(Files.readAllBytes(¢), StandardCharsets.UTF_8);
+  }
+
+  /** Write a new secret to a file which only the user may read
+   * @param ¢ JD
+   * @return the secret
+   * @throws IOException */
+  static String token(final Path ¢) throws IOException {
+    final byte[] bs = new byte[32];
+    new SecureRandom().nextBytes(bs);
+    final StringBuilder $ = new StringBuilder();
+    for (final byte b : bs)
+      $.append(String.format("%02x", Integer.valueOf(b & 0xFF)));
+    Files.deleteIfExists(¢);
+    if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+      Files.createFile(¢);
+    else
+      Files.createFile(¢, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    Files.write(¢, ($ + "").getBytes(StandardCharsets.UTF_8));
+    return $ + "";
+  }
+
+  /** The session of all requests; its toolbox is a snapshot, shared by all
+   * threads */
+  final Session session = new Session(Toolbox.defaultInstance());
+  /** Number of connections answered at once */
+  int threads = Runtime.getRuntime().availableProcessors();
+  /** Limit of the work on a single file; zero means none */
+  int maxMillis;
+  /** Only files under this directory are spartanized */
+  Path root = Paths.get("");
+
+  /** Answer requests until the end of the input, <code>QUIT</code> or
+   * <code>STOP</code>
+   * @param in JD
+   * @param out JD
+   * @return whether <code>STOP</code> was requested
+   * @throws IOException */
+  public boolean serve(final InputStream in, final OutputStream out) throws IOException {
+    final InputStream i = new BufferedInputStream(in);
+    for (String line; (line = line(i)) != null;) {
+      final int space = line.indexOf(' ');
+      final String command = space < 0 ? line : line.substring(0, space);
+      if ("QUIT".equals(command))
+        return false;
+      if ("STOP".equals(command)) {
+        answer(out, "");
+        return true;
+      }
+      try {
+        answer(out, answer(command, space < 0 ? "" : line.substring(space + 1), i));
+      } catch (final IOException | RuntimeException | AssertionError x) {
+        error(out, x);
+      }
+    }
+    return false;
+  }
+
+  /** Answer the connections to a socket, each on a thread of its own, until
+   * one of them requests <code>STOP</code>
+   * @param s JD
+   * @param token the secret which each connection must send first */
+  public void serve(final ServerSocket s, final String token) {
+    final ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      while (!s.isClosed())
+        try {
+          final Socket c = s.accept();
+          pool.execute(() -> {
+            try (Socket ¢ = c) {
+              final InputStream in = new BufferedInputStream(¢.getInputStream());
+              if (authentic(in, ¢.getOutputStream(), token) && serve(in, ¢.getOutputStream()))
+                s.close();
+            } catch (final IOException x) {
+              monitor.infoIOException(x, "Connection " + c + " is dropped");
+            }
+          });
+        } catch (final IOException x) {
+          if (!s.isClosed())
+            monitor.infoIOException(x, "Connection is refused");
+        }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Load the classes of the engine, and its tippers */
+  void warm() {
+    for (int ¢ = 0; ¢ < 3; ++¢)
+      fixed(warmup);
+  }
+
+  private String answer(final String command, final String argument, final InputStream in) throws IOException {
+    switch (command) {
+      case "PING":
+        return "";
+      case "FILE":
+        return fixed(read(path(argument)));
+      case "WRITE":
+        final Path p = path(argument);
+        final String from = read(p), $ = fixed(from);
+        if (!$.equals(from))
+          Files.write(p, $.getBytes(StandardCharsets.UTF_8));
+        return "";
+      case "TIPS":
+        return tips(read(path(argument)));
+      case "SOURCE":
+        return fixed(new String(bytes(in, Integer.parseInt(argument)), StandardCharsets.UTF_8));
+      default:
+        throw new IllegalArgumentException("Unknown request: " + command);
+    }
+  }
+
+  private String fixed(final String from) {
+    final Budget b = new Budget();
+    if (maxMillis > 0)
+      b.millis(maxMillis);
+    return session.call(() -> session.trimmer().fixed(from, b));
+  }
+
+  /** @param ¢ JD
+   * @return the file of this path, with links resolved
+   * @throws IOException if there is no such file
+   * @throws SecurityException if it is not under the root */
+  private Path path(final String ¢) throws IOException {
+    final Path $ = Paths.get(¢).toRealPath();
+    if (!$.startsWith(root.toRealPath()))
+      throw new SecurityException($ + " is not under " + root.toAbsolutePath());
+    return $;
+  }
+
+  private String tips(final String from) {
+    return session.call(() -> {
+      final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(from);
+      final StringBuilder $ = new StringBuilder();
+      for (final Tip ¢ : session.trimmer().collectSuggesions(u))
+        $.append(u.getLineNumber(¢.from)).append(": ").append(¢.description).append('\n');
+      NodeTable.discard(u.getAST());
+      return $ + "";
+    });
+  }
+}
@@ -0,0 +1,59 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/** Texts kept in a directory, each in a file named by the hash of the text,
+ * see {@link Manifest#hash(String)}, so that a {@link Manifest} may refer to
+ * large texts by their hashes, rather than hold them. A text is read only when
+ * it is needed, and a text kept twice is stored once.
+ * @since 2016 */
+public final class TextStore {
+  private final File directory;
+
+  /** @param directory where the texts are kept; made on the first
+   *        {@link #put(String)} */
+  public TextStore(final File directory) {
+    this.directory = directory;
+  }
+
+  /** @param hash JD
+   * @return the text of this hash, or <code><b>null</b></code> if it is not
+   *         kept */
+  public String get(final String hash) {
+    try {
+      return new String(Files.readAllBytes(new File(directory, hash).toPath()), StandardCharsets.UTF_8);
+    } catch (@SuppressWarnings("unused") final IOException __) {
+      return null;
+    }
+  }
+
+  /** Keep a text, written through a temporary file, so that a kept text is
+   * always whole
+   * @param text JD
+   * @return its hash
+   * @throws IOException */
+  public String put(final String text) throws IOException {
+    final String $ = Manifest.hash(text);
+    final File f = new File(directory, $);
+    if (f.exists())
+      return $;
+    Files.createDirectories(directory.toPath());
+    final Path tmp = Files.createTempFile(directory.toPath(), $, ".tmp");
+    Files.write(tmp, text.getBytes(StandardCharsets.UTF_8));
+    Files.move(tmp, f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return $;
+  }
+
+  /** Drop all texts but some
+   * @param hashes the hashes of the texts kept */
+  public void retain(final Set<String> hashes) {
+    final File[] fs = directory.listFiles();
+    if (fs != null)
+      for (final File ¢ : fs)
+        if (!hashes.contains(¢.getName()))
+          ¢.delete();
+  }
+}
@@ -0,0 +1,262 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import il.org.spartan.collections.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.utils.*;
+
+/** Spartanizes a corpus to fixed point, and reports, in a properties file, the
+ * throughput, the latency and the memory use of the engine. The report may be
+ * compared with a stored baseline report; the program then exits with a non
+ * zero code if some measure is worse than the baseline by more than its
+ * budget.
+ * @since 2016 */
+public final class ThroughputBenchmark {
+  /** A measure in the report */
+  enum Measure {
+    filesPerSecond(true), //
+    nodesPerSecond(true), //
+    iterationsPerFile(false), //
+    p50Millis(false), //
+    p99Millis(false), //
+    peakHeapBytes(false), //
+    allocatedBytes(false);
+    /** Whether larger values are better */
+    final boolean higherIsBetter;
+
+    Measure(final boolean higherIsBetter) {
+      this.higherIsBetter = higherIsBetter;
+    }
+
+    /** @param value JD
+     * @param baseline JD
+     * @return by how many percents the value is worse than the baseline */
+    double regression(final double value, final double baseline) {
+      return baseline == 0 ? 0 : 100 * (higherIsBetter ? baseline - value : value - baseline) / baseline;
+    }
+  }
+
+  public static void main(final String[] args) {
+    if (args.length == 0) {
+      printHelpPrompt();
+      return;
+    }
+    final ThroughputBenchmark $ = new ThroughputBenchmark();
+    $.parseCommandLineArgs(args);
+    if ($.inputPath == null)
+      printHelpPrompt();
+    else
+      System.exit($.fire());
+  }
+
+  static void printHelpPrompt() {
+    System.out.println("Throughput benchmark");
+    System.out.println("");
+    System.out.println("Options:");
+    System.out.println("  -i PATH          input: a Java file, or a directory of Java files");
+    System.out.println("  -o FILE          output: the report, in properties format (default: /tmp/throughput.properties)");
+    System.out.println("  -b FILE          baseline: a report to compare with");
+    System.out.println("  -t N             budget: how many percents any measure may be worse than the baseline (default: 10)");
+    System.out.println("  -t MEASURE=N     budget of a single measure, one of " + Arrays.toString(Measure.values()));
+    System.out.println("  -w N             warm up: passes over the input before measuring (default: 1)");
+    System.out.println("  -p FILE          profile: write counts and latencies of each tipper to FILE.csv and FILE.json");
+    System.out.println("  -x FILE          trace: write the latest events of the engine to FILE.csv and FILE.json");
+    System.out.println("");
+  }
+
+  /** @param ¢ JD
+   * @param p a fraction
+   * @return the nearest rank percentile of sorted values */
+  static long percentile(final long[] ¢, final double p) {
+    return ¢.length == 0 ? 0 : ¢[Math.max(0, (int) Math.ceil(p * ¢.length) - 1)];
+  }
+
+  /** @return bytes allocated so far by the current thread, or -1 if the JVM
+   *         does not tell */
+  private static long allocatedBytes() {
+    final ThreadMXBean $ = ManagementFactory.getThreadMXBean();
+    return !($ instanceof com.sun.management.ThreadMXBean) ? -1
+        : ((com.sun.management.ThreadMXBean) $).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static long peakHeap() {
+    long $ = 0;
+    for (final MemoryPoolMXBean ¢ : ManagementFactory.getMemoryPoolMXBeans())
+      if (¢.getType() == MemoryType.HEAP && ¢.getPeakUsage() != null)
+        $ += ¢.getPeakUsage().getUsed();
+    return $;
+  }
+
+  private static Properties properties(final Map<Measure, Double> report) {
+    final Properties $ = new Properties();
+    for (final Measure ¢ : report.keySet())
+      $.setProperty(¢ + "", String.format(Locale.ROOT, "%.2f", report.get(¢)));
+    return $;
+  }
+
+  private static void resetPeakHeap() {
+    for (final MemoryPoolMXBean ¢ : ManagementFactory.getMemoryPoolMXBeans())
+      if (¢.getType() == MemoryType.HEAP)
+        ¢.resetPeakUsage();
+  }
+
+  private String inputPath;
+  private String outputFileName = "/tmp/throughput.properties";
+  private String baselineFileName;
+  private double budget = 10;
+  private final Map<Measure, Double> budgets = new EnumMap<>(Measure.class);
+  private int warmups = 1;
+  private String profileFileName;
+  private String traceFileName;
+
+  /** @param baseline JD
+   * @param report JD
+   * @return the measures of the report which are worse than the baseline by
+   *         more than their budget, with the regression of each */
+  Map<Measure, Double> exceeded(final Properties baseline, final Map<Measure, Double> report) {
+    final Map<Measure, Double> $ = new EnumMap<>(Measure.class);
+    for (final Measure m : Measure.values()) {
+      final String b = baseline.getProperty(m + "");
+      if (b == null || report.get(m).doubleValue() < 0 || Double.parseDouble(b) < 0)
+        continue;
+      final double r = m.regression(report.get(m).doubleValue(), Double.parseDouble(b));
+      if (r > budgets.getOrDefault(m, Double.valueOf(budget)).doubleValue())
+        $.put(m, Double.valueOf(r));
+    }
+    return $;
+  }
+
+  /** Run the benchmark, write the report, and compare it with the baseline
+   * @return exit code: zero if all budgets were kept */
+  int fire() {
+    final List<String> texts = new ArrayList<>();
+    try {
+      for (final File ¢ : new FilesGenerator(".java").from(inputPath))
+        texts.add(FileUtils.read(¢));
+    } catch (final IOException x) {
+      x.printStackTrace();
+      return 2;
+    }
+    final Session session = new Session();
+    if (profileFileName != null)
+      session.collectStatistics();
+    final Map<Measure, Double> report = session.call(() -> {
+      for (int ¢ = 0; ¢ < warmups; ++¢)
+        for (final String text : texts)
+          new Trimmer().fixed(text);
+      if (session.statistics() != null)
+        session.statistics().reset();
+      if (traceFileName != null)
+        session.startTrace(1 << 20);
+      return measure(texts);
+    });
+    if (traceFileName != null)
+      try {
+        session.stopTrace().save(traceFileName);
+        System.out.println("Trace is in " + traceFileName + ".csv and " + traceFileName + ".json");
+      } catch (final IOException x) {
+        x.printStackTrace();
+        return 2;
+      }
+    if (profileFileName != null)
+      try {
+        System.out.println("Profile is in " + session.statistics().csv(profileFileName));
+        session.statistics().writeJson(profileFileName + ".json");
+      } catch (final IOException x) {
+        x.printStackTrace();
+        return 2;
+      }
+    try (Writer w = new FileWriter(outputFileName)) {
+      properties(report).store(w, "Throughput of " + inputPath);
+    } catch (final IOException x) {
+      x.printStackTrace();
+      return 2;
+    }
+    for (final Measure ¢ : Measure.values())
+      System.out.printf("%20s: %.2f\n", ¢, report.get(¢));
+    System.out.println("Report is in " + outputFileName);
+    if (baselineFileName == null)
+      return 0;
+    final Properties baseline = new Properties();
+    try (Reader r = new FileReader(baselineFileName)) {
+      baseline.load(r);
+    } catch (final IOException x) {
+      x.printStackTrace();
+      return 2;
+    }
+    final Map<Measure, Double> $ = exceeded(baseline, report);
+    for (final Measure ¢ : $.keySet())
+      System.out.printf("Budget exceeded: %s is worse than the baseline %s by %.1f%%\n", ¢, baseline.getProperty(¢ + ""), $.get(¢));
+    return $.isEmpty() ? 0 : 1;
+  }
+
+  /** @param texts the files to spartanize
+   * @return the measures */
+  Map<Measure, Double> measure(final List<String> texts) {
+    final long[] latencies = new long[texts.size()];
+    final AtomicInteger rounds = new AtomicInteger();
+    long nodes = 0;
+    for (final String ¢ : texts)
+      nodes += count.nodes(makeAST.COMPILATION_UNIT.from(¢));
+    System.gc();
+    resetPeakHeap();
+    final long allocated = allocatedBytes();
+    final long start = System.nanoTime();
+    for (int ¢ = 0; ¢ < latencies.length; ++¢) {
+      final long t = System.nanoTime();
+      new Trimmer().fixed(texts.get(¢), rounds);
+      latencies[¢] = System.nanoTime() - t;
+    }
+    final double seconds = (System.nanoTime() - start) / 1E9;
+    final Map<Measure, Double> $ = new EnumMap<>(Measure.class);
+    $.put(Measure.allocatedBytes, Double.valueOf(allocated < 0 ? -1 : allocatedBytes() - allocated));
+    $.put(Measure.peakHeapBytes, Double.valueOf(peakHeap()));
+    Arrays.sort(latencies);
+    $.put(Measure.filesPerSecond, Double.valueOf(texts.size() / seconds));
+    $.put(Measure.nodesPerSecond, Double.valueOf(nodes / seconds));
+    $.put(Measure.iterationsPerFile, Double.valueOf(texts.isEmpty() ? 0 : rounds.doubleValue() / texts.size()));
+    $.put(Measure.p50Millis, Double.valueOf(percentile(latencies, 0.5) / 1E6));
+    $.put(Measure.p99Millis, Double.valueOf(percentile(latencies, 0.99) / 1E6));
+    return $;
+  }
+
+  private void parseCommandLineArgs(final String[] args) {
+    for (int ¢ = 0; ¢ < args.length;)
+      if ("-i".equals(args[¢])) {
+        inputPath = args[¢ + 1];
+        ¢ += 2;
+      } else if ("-o".equals(args[¢])) {
+        outputFileName = args[¢ + 1];
+        ¢ += 2;
+      } else if ("-b".equals(args[¢])) {
+        baselineFileName = args[¢ + 1];
+        ¢ += 2;
+      } else if ("-t".equals(args[¢])) {
+        final String[] t = args[¢ + 1].split("=");
+        if (t.length == 1)
+          budget = Double.parseDouble(t[0]);
+        else
+          budgets.put(Measure.valueOf(t[0]), Double.valueOf(t[1]));
+        ¢ += 2;
+      } else if ("-w".equals(args[¢])) {
+        warmups = Integer.parseInt(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-p".equals(args[¢])) {
+        profileFileName = args[¢ + 1];
+        ¢ += 2;
+      } else if ("-x".equals(args[¢])) {
+        traceFileName = args[¢ + 1];
+        ¢ += 2;
+      } else {
+        System.out.println(args[¢]);
+        System.out.println("[ERROR]: Something went wrong!");
+        ++¢;
+      }
+  }
+}
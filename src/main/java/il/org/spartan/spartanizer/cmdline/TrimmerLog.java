@@ -8,83 +8,107 @@ import org.eclipse.jdt.core.dom.rewrite.*;
 import static il.org.spartan.spartanizer.ast.navigate.step.*;
 
 import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
 import il.org.spartan.spartanizer.tipping.*;
 
-/** Logging stuff
+/** Logging stuff; the settings and counters are those of the current
+ * {@link Session}. Nothing is printed unless a maximum is set: the engine
+ * records what it does, far more cheaply, in a {@link Trace}, and calls here
+ * only if {@link #on()}.
  * @author Yossi Gil
  * @year 2016 */
 public class TrimmerLog {
-  private static CSVStatistics output;
-  private static int maxVisitations = 30;
-  private static int maxTips = 20;
-  private static int maxApplications = 10;
-  private static boolean logToScreen = true; // default output
-  private static boolean logToFile;
-  private static String outputDir = "/tmp/trimmerlog-output.CSV";
-  private static String fileName;
+  /** Settings and counters of a single {@link Session} */
+  private static final class State {
+    CSVStatistics output;
+    int maxVisitations;
+    int maxTips;
+    int maxApplications;
+    boolean logToScreen = true; // default output
+    boolean logToFile;
+    String outputDir = "/tmp/trimmerlog-output.CSV";
+    String fileName;
+  }
+
+  private static State state() {
+    return Session.current().state(State.class, State::new);
+  }
+
+  /** @return whether anything may be logged in the current session; read
+   *         once per pass, as {@link Session#trace()} is */
+  public static boolean on() {
+    final State $ = state();
+    return $.maxVisitations > 0 || $.maxTips > 0 || $.maxApplications > 0;
+  }
 
   public static void activateLogToFile() {
-    logToFile = true;
+    state().logToFile = true;
   }
 
   public static void activateLogToScreen() {
-    logToScreen = true;
+    state().logToScreen = true;
   }
 
   public static void application(final ASTRewrite r, final Tip t) {
-    if (--maxApplications <= 0) {
-      if (maxApplications == 0)
-        System.out.println("Stopped logging applications");
-      t.go(r, null);
+    final State s = state();
+    if (s.maxApplications <= 0) {
+      TipperStatistics.go(t, r, null);
+      return;
+    }
+    if (--s.maxApplications == 0) {
+      System.out.println("Stopped logging applications");
+      TipperStatistics.go(t, r, null);
       return;
     }
     System.out.println("      Before: " + r);
-    t.go(r, null);
+    TipperStatistics.go(t, r, null);
     System.out.println("       After: " + r);
   }
 
   public static int getMaxApplications() {
-    return maxApplications;
+    return state().maxApplications;
   }
 
   public static int getMaxTips() {
-    return maxTips;
+    return state().maxTips;
   }
 
   public static int getMaxVisitations() {
-    return maxVisitations;
+    return state().maxVisitations;
   }
 
   public static void setFileName(final String $) {
-    fileName = $;
+    state().fileName = $;
   }
 
   public static void setMaxApplications(final int maxApplications) {
-    TrimmerLog.maxApplications = maxApplications;
+    state().maxApplications = maxApplications;
   }
 
   public static void setMaxTips(final int maxTips) {
-    TrimmerLog.maxTips = maxTips;
+    state().maxTips = maxTips;
   }
 
   public static void setMaxVisitations(final int maxVisitations) {
-    TrimmerLog.maxVisitations = maxVisitations;
+    state().maxVisitations = maxVisitations;
   }
 
   public static void setOutputDir(final String $) {
-    TrimmerLog.outputDir = $;
+    state().outputDir = $;
   }
 
   public static <N extends ASTNode> void tip(final Tipper<N> w, final N n) throws TipperFailure {
-    if (--maxTips <= 0) {
-      if (maxTips == 0)
-        System.out.println("Stopped logging tips");
+    final State s = state();
+    if (s.maxTips <= 0)
+      return;
+    if (--s.maxTips == 0) {
+      System.out.println("Stopped logging tips");
       return;
     }
-    if (logToFile) {
-      init();
-      output.put("File", fileName);
+    if (s.logToFile) {
+      final CSVStatistics output = init(s);
+      output.put("File", s.fileName);
       output.put("Tipper", clazz(w));
       output.put("Named", w.description());
       output.put("Kind", w.tipperGroup());
@@ -93,9 +117,9 @@ public class TrimmerLog {
       output.put("Suggests", w.tip(n));
       output.nl();
     }
-    if (!logToScreen || !logToScreen)
+    if (!s.logToScreen)
       return;
-    System.out.println("        File: " + fileName);
+    System.out.println("        File: " + s.fileName);
     System.out.println("       Tipper: " + clazz(w));
     System.out.println("       Named: " + w.description());
     System.out.println("        Kind: " + w.tipperGroup());
@@ -105,9 +129,12 @@ public class TrimmerLog {
   }
 
   public static void visitation(final ASTNode ¢) {
-    if (--maxVisitations > 0)
+    final State s = state();
+    if (s.maxVisitations <= 0)
+      return;
+    if (--s.maxVisitations > 0)
       System.out.println("VISIT: '" + tide.clean(¢ + "") + "' [" + ¢.getLength() + "] (" + clazz(¢) + ")" + " parent = " + clazz(parent(¢)));
-    else if (maxVisitations == 0)
+    else
       System.out.println("Stopped logging visitations");
   }
 
@@ -115,12 +142,12 @@ public class TrimmerLog {
     return n.getClass().getSimpleName();
   }
 
-  private static CSVStatistics init() {
+  private static CSVStatistics init(final State s) {
     try {
-      output = new CSVStatistics(outputDir, "Tips");
+      s.output = new CSVStatistics(s.outputDir, "Tips");
     } catch (final IOException e) {
       e.printStackTrace();
     }
-    return null;
+    return s.output;
   }
 }
@@ -0,0 +1,232 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Watches a source tree, and prints the tips found in each Java file as soon
+ * as it changes, as the {@link il.org.spartan.plugin.Builder} does in
+ * Eclipse, for developers using any other editor.
+ * <p>
+ * The directories of the tree are registered with a {@link WatchService}.
+ * Events come in bursts, e.g., as an editor saves, so that once an event
+ * arrives, the watcher waits until no further event arrives for a short
+ * while, and only then looks at the files changed. A file is checked again
+ * only if its content changed since it was last checked. Tips are found by
+ * {@link Trimmer#collectSuggesions(CompilationUnit)}, with the tippers of a
+ * single snapshot, kept warm from one check to the next, and printed a line
+ * to each, <i>path</i><code>:</code><i>line</i><code>: </code>
+ * <i>description</i>; a file in which no tips are left is printed as
+ * <i>path</i><code>: no tips</code>.
+ * @since 2016 */
+public final class Watcher implements Closeable {
+  public static void main(final String[] args) {
+    Path root = null;
+    long debounce = 200;
+    boolean scan = true;
+    for (int ¢ = 0; ¢ < args.length;)
+      if ("--watch".equals(args[¢]) || "-w".equals(args[¢])) {
+        root = Paths.get(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-d".equals(args[¢])) {
+        debounce = Long.parseLong(args[¢ + 1]);
+        ¢ += 2;
+      } else if ("-n".equals(args[¢])) {
+        scan = false;
+        ¢ += 1;
+      } else {
+        System.err.println(args[¢]);
+        System.err.println("[ERROR]: Something went wrong!");
+        ++¢;
+      }
+    if (root == null) {
+      printHelpPrompt();
+      return;
+    }
+    try (Watcher $ = new Watcher(root, System.out, debounce)) {
+      if (scan)
+        $.scan();
+      System.err.println("Watching " + root.toAbsolutePath());
+      $.watch();
+    } catch (final IOException x) {
+      monitor.infoIOException(x, "Watching " + root + " stopped");
+    } catch (@SuppressWarnings("unused") final InterruptedException | ClosedWatchServiceException __) {
+      // Stopped
+    }
+  }
+
+  static void printHelpPrompt() {
+    System.out.println("Watcher: prints the tips of each Java file of a source tree as it changes");
+    System.out.println("");
+    System.out.println("Options:");
+    System.out.println("  --watch DIR  the source tree to watch");
+    System.out.println("  -d MS        debounce: wait for MS milliseconds without events before checking files; default is 200");
+    System.out.println("  -n           no scan: do not check all files when starting");
+    System.out.println("");
+  }
+
+  private static boolean isJava(final Path ¢) {
+    return ¢.getFileName() != null && ¢.getFileName().toString().endsWith(".java");
+  }
+
+  private final Path root;
+  private final PrintStream out;
+  private final long debounce;
+  private final WatchService service;
+  /** Directory of each registered key */
+  private final Map<WatchKey, Path> directories = new HashMap<>();
+  /** Hash of the content of each file checked, when it was checked */
+  private final Map<Path, String> checked = new HashMap<>();
+  /** The tippers of all checks; a snapshot, which stays warm */
+  private final Session session = new Session(Toolbox.defaultInstance());
+  private final Trimmer trimmer = session.trimmer();
+
+  /** @param root the source tree to watch
+   * @param out where tips are printed
+   * @param debounce for how many milliseconds no event must arrive before
+   *        changed files are checked
+   * @throws IOException */
+  public Watcher(final Path root, final PrintStream out, final long debounce) throws IOException {
+    this.root = root;
+    this.out = out;
+    this.debounce = debounce;
+    service = root.getFileSystem().newWatchService();
+    register(root);
+  }
+
+  /** Check a file, unless its content did not change since it was last
+   * checked
+   * @param f JD
+   * @return number of tips found in the file, or -1 if it was not checked */
+  public int check(final Path f) {
+    final String text;
+    try {
+      text = new String(Files.readAllBytes(f), StandardCharsets.UTF_8);
+    } catch (@SuppressWarnings("unused") final NoSuchFileException __) {
+      checked.remove(f);
+      return -1;
+    } catch (final IOException x) {
+      monitor.infoIOException(x, "File " + f + " is not checked");
+      return -1;
+    }
+    final String hash = Manifest.hash(text);
+    if (hash.equals(checked.put(f, hash)))
+      return -1;
+    final List<String> $ = session.call(() -> tips(text));
+    for (final String ¢ : $)
+      out.println(f + ":" + ¢);
+    if ($.isEmpty())
+      out.println(f + ": no tips");
+    out.flush();
+    return $.size();
+  }
+
+  /** Stop watching
+   * @throws IOException */
+  @Override public void close() throws IOException {
+    service.close();
+  }
+
+  /** Check all Java files of the tree
+   * @throws IOException */
+  public void scan() throws IOException {
+    final List<Path> $ = new ArrayList<>();
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+      @Override public FileVisitResult visitFile(final Path p, @SuppressWarnings("unused") final BasicFileAttributes __) {
+        if (isJava(p))
+          $.add(p);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort($);
+    for (final Path ¢ : $)
+      check(¢);
+  }
+
+  /** Check the files which change, until {@link #close()} is called, or the
+   * thread is interrupted
+   * @throws InterruptedException */
+  public void watch() throws InterruptedException {
+    for (;;)
+      for (final Path ¢ : changes())
+        check(¢);
+  }
+
+  /** Wait for a burst of events, and until the tree is quiet
+   * @return the Java files changed by the events, in order
+   * @throws InterruptedException */
+  SortedSet<Path> changes() throws InterruptedException {
+    final SortedSet<Path> $ = new TreeSet<>();
+    for (WatchKey k = service.take(); k != null; k = service.poll(debounce, TimeUnit.MILLISECONDS)) {
+      final Path directory = directories.get(k);
+      for (final WatchEvent<?> e : k.pollEvents())
+        if (directory != null)
+          try {
+            changes(directory, e, $);
+          } catch (final IOException | UncheckedIOException x) {
+            // E.g., the directory was removed, as build tools often do
+            monitor.infoIOException(x, "Changes in " + directory + " are skipped");
+          }
+      if (!k.reset())
+        directories.remove(k);
+    }
+    return $;
+  }
+
+  /** @param directory where the event happened
+   * @param e JD
+   * @param $ where the Java files changed by the event go */
+  private void changes(final Path directory, final WatchEvent<?> e, final SortedSet<Path> $) throws IOException {
+    if (e.kind() == OVERFLOW) {
+      // Events were lost; any file of the directory may have changed
+      try (Stream<Path> ps = Files.list(directory)) {
+        ps.filter(Watcher::isJava).forEach($::add);
+      }
+      return;
+    }
+    final Path p = directory.resolve((Path) e.context());
+    if (e.kind() == ENTRY_CREATE && Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+      register(p);
+      try (Stream<Path> ps = Files.walk(p)) {
+        ps.filter(Watcher::isJava).forEach($::add);
+      }
+    } else if (!isJava(p))
+      return;
+    else if (e.kind() != ENTRY_DELETE)
+      $.add(p);
+    else {
+      $.remove(p);
+      checked.remove(p);
+    }
+  }
+
+  private void register(final Path directory) throws IOException {
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override public FileVisitResult preVisitDirectory(final Path d, @SuppressWarnings("unused") final BasicFileAttributes __) throws IOException {
+        directories.put(d.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), d);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private List<String> tips(final String text) {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(text);
+    final List<String> $ = new ArrayList<>();
+    for (final Tip ¢ : trimmer.collectSuggesions(u))
+      $.add(u.getLineNumber(¢.from) + ": " + ¢.description);
+    NodeTable.discard(u.getAST());
+    return $;
+  }
+}
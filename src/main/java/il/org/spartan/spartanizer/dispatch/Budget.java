@@ -0,0 +1,166 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Limits on the work {@link Trimmer#fixed(String, Budget)} may do on a
+ * single file: rounds, wall time, and tips applied. When a limit is reached,
+ * the trimmer stops where it is, possibly in the middle of a round, and
+ * returns the text as trimmed so far, which is always a consistent result of
+ * the tips applied. If a fallback {@link Toolbox} was given, typically one
+ * with only cheap categories of tippers, trimming then goes on with it, under
+ * the same limits.
+ * <p>
+ * A budget also reports on the run: the rounds made, the tips applied, the
+ * limit which was reached, if any, and the tippers which were still firing
+ * in the last round. Use a fresh budget for each file. A budget is also
+ * exhausted when the text returns to an earlier state; the tippers then
+ * reported are those of the rounds of the cycle.
+ * @since 2016 */
+public final class Budget {
+  /** A limit of a budget */
+  public enum Limit {
+    ROUNDS, TIME, TIPS,
+    /** Not a limit: the text returned to an earlier state, see
+     * {@link Oscillation} */
+    CYCLE
+  }
+
+  private int maxRounds = Integer.MAX_VALUE;
+  private long maxNanos = Long.MAX_VALUE;
+  private int maxTips = Integer.MAX_VALUE;
+  private Toolbox fallback;
+  private int rounds;
+  private int tips;
+  private long deadline;
+  private Limit exhausted;
+  /** Number of tips applied before each round */
+  private final List<Integer> tipsBefore = new ArrayList<>();
+  /** Tippers which applied tips in the current round */
+  private final Set<Class<?>> firing = new LinkedHashSet<>();
+
+  /** @return the limit which was reached, or <code><b>null</b></code> if
+   *         none */
+  public Limit exhausted() {
+    return exhausted;
+  }
+
+  /** @param ¢ tippers to go on with once a limit is reached
+   * @return <code><b>this</b></code> */
+  public Budget fallback(final Toolbox ¢) {
+    fallback = ¢;
+    return this;
+  }
+
+  /** @return classes of the tippers which applied tips in the last round */
+  public Set<Class<?>> firing() {
+    return Collections.unmodifiableSet(firing);
+  }
+
+  /** @param ¢ maximal wall time, in milliseconds
+   * @return <code><b>this</b></code> */
+  public Budget millis(final long ¢) {
+    maxNanos = 1000000 * ¢;
+    return this;
+  }
+
+  /** @return number of rounds made */
+  public int rounds() {
+    return rounds;
+  }
+
+  /** @param ¢ maximal number of rounds
+   * @return <code><b>this</b></code> */
+  public Budget rounds(final int ¢) {
+    maxRounds = ¢;
+    return this;
+  }
+
+  /** @return number of tips applied */
+  public int tips() {
+    return tips;
+  }
+
+  /** @param ¢ maximal number of tips applied
+   * @return <code><b>this</b></code> */
+  public Budget tips(final int ¢) {
+    maxTips = ¢;
+    return this;
+  }
+
+  /** @param ¢ a round made, counting from zero
+   * @return number of tips applied in the round */
+  public int tipsInRound(final int ¢) {
+    return (¢ + 1 < tipsBefore.size() ? tipsBefore.get(¢ + 1).intValue() : tips) - tipsBefore.get(¢).intValue();
+  }
+
+  @Override public String toString() {
+    final StringBuilder $ = new StringBuilder().append(rounds).append(" rounds, ").append(tips).append(" tips");
+    if (exhausted == null)
+      return $ + "";
+    $.append("; ").append(exhausted).append(" budget exhausted, still firing:");
+    for (final Class<?> ¢ : firing)
+      $.append(' ').append(¢.getSimpleName());
+    return $ + "";
+  }
+
+  /** @return whether a limit is reached; checked as nodes are visited */
+  boolean exhausting() {
+    if (exhausted != null)
+      return true;
+    if (tips >= maxTips)
+      exhausted = Limit.TIPS;
+    else if (maxNanos != Long.MAX_VALUE && System.nanoTime() - deadline >= 0)
+      exhausted = Limit.TIME;
+    return exhausted != null;
+  }
+
+  /** @return a fresh budget with the same limits, but no fallback, for the
+   *         fallback tippers, or <code><b>null</b></code> if there are
+   *         none */
+  Budget fallingBack() {
+    if (fallback == null)
+      return null;
+    final Budget $ = new Budget().rounds(maxRounds).tips(maxTips);
+    $.maxNanos = maxNanos;
+    return $;
+  }
+
+  /** @return the fallback tippers, or <code><b>null</b></code> */
+  Toolbox fallbackToolbox() {
+    return fallback;
+  }
+
+  /** Begin a round
+   * @return whether the round may be made */
+  boolean round() {
+    if (rounds == 0)
+      deadline = maxNanos == Long.MAX_VALUE ? 0 : System.nanoTime() + maxNanos;
+    if (exhausting())
+      return false;
+    if (rounds >= maxRounds) {
+      exhausted = Limit.ROUNDS;
+      return false;
+    }
+    ++rounds;
+    tipsBefore.add(Integer.valueOf(tips));
+    firing.clear();
+    return true;
+  }
+
+  /** Stop on a cycle
+   * @param ¢ where the cycle was found */
+  void cycle(final Oscillation ¢) {
+    exhausted = Limit.CYCLE;
+    firing.clear();
+    firing.addAll(¢.tippers());
+  }
+
+  /** Account for an applied tip
+   * @param ¢ the tipper which made it */
+  void tipped(final Tipper<?> ¢) {
+    ++tips;
+    firing.add(¢.getClass());
+  }
+}
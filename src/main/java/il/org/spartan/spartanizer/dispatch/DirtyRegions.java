@@ -0,0 +1,125 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** Book keeping for the incremental fixed point computed by
+ * {@link Trimmer#fixed(String)}.
+ * <p>
+ * The regions tracked are the members, i.e., the body declarations of the top
+ * level types of a compilation unit. A member in which a round found no tip is
+ * remembered by its text, and is skipped in the next round, provided that the
+ * <em>shell</em>, i.e., the text of the compilation unit with all members cut
+ * out, did not change in between. A round that skipped some member and changed
+ * nothing is followed by a full round, so the computation ends only once a
+ * full round finds nothing to do.
+ * <p>
+ * Members may also be <em>trusted</em> to be at fixed point, e.g., since they
+ * were spliced from a {@link il.org.spartan.spartanizer.cmdline.MemberCache};
+ * these are skipped by all rounds, full ones included, as long as the shell
+ * does not change.
+ * @since 2016 */
+public final class DirtyRegions {
+  static String shell(final String text, final List<BodyDeclaration> ds) {
+    final StringBuilder $ = new StringBuilder();
+    int from = 0;
+    for (final BodyDeclaration ¢ : ds) {
+      // Members of a recovered, malformed, AST may overlap
+      if (¢.getStartPosition() > from)
+        $.append(text, from, ¢.getStartPosition());
+      from = Math.max(from, ¢.getStartPosition() + ¢.getLength());
+    }
+    return $.append(text, from, text.length()) + "";
+  }
+
+  static List<BodyDeclaration> members(final CompilationUnit u) {
+    final List<BodyDeclaration> $ = new ArrayList<>();
+    for (final Object ¢ : u.types())
+      for (final Object d : ((AbstractTypeDeclaration) ¢).bodyDeclarations())
+        $.add((BodyDeclaration) d);
+    return $;
+  }
+
+  /** Text of members in which the last round found no tip */
+  private final Set<String> clean = new HashSet<>();
+  /** Text of members trusted to be at fixed point */
+  private final Set<String> trusted = new HashSet<>();
+  /** Members of the current round, and their text */
+  private final Map<ASTNode, String> members = new IdentityHashMap<>();
+  /** Members in which the current round found a tip */
+  private final Set<ASTNode> tipped = Collections.newSetFromMap(new IdentityHashMap<>());
+  private String shell;
+  private int skipped;
+
+  /** Start a round over a fresh parse of the current text
+   * @param u JD
+   * @param text the text from which the parameter was parsed */
+  public void begin(final CompilationUnit u, final String text) {
+    members.clear();
+    tipped.clear();
+    skipped = 0;
+    final List<BodyDeclaration> ds = members(u);
+    for (final BodyDeclaration ¢ : ds)
+      members.put(¢, text.substring(¢.getStartPosition(), ¢.getStartPosition() + ¢.getLength()));
+    final String s = shell(text, ds);
+    if (!s.equals(shell)) {
+      clean.clear();
+      trusted.clear();
+    }
+    shell = s;
+  }
+
+  /** Finish the current round
+   * @param changed whether the round changed the text
+   * @return <code><b>true</b></code> <em>iff</em> a fixed point was
+   *         reached */
+  public boolean end(final boolean changed) {
+    clean.clear();
+    if (!changed)
+      return skipped == 0;
+    for (final ASTNode ¢ : members.keySet())
+      if (!tipped.contains(¢))
+        clean.add(members.get(¢));
+    return false;
+  }
+
+  /** Trust members to be at fixed point, until the shell changes
+   * @param texts JD
+   * @param s text of the shell around them */
+  void trust(final Collection<String> texts, final String s) {
+    if (!s.equals(shell)) {
+      clean.clear();
+      trusted.clear();
+    }
+    shell = s;
+    trusted.addAll(texts);
+  }
+
+  /** @param ¢ JD
+   * @return <code><b>true</b></code> <em>iff</em> the parameter is a member
+   *         that the current round should not visit */
+  public boolean skip(final ASTNode ¢) {
+    if (members.containsKey(¢) && trusted.contains(members.get(¢)))
+      return true;
+    if (!members.containsKey(¢) || !clean.contains(members.get(¢)))
+      return false;
+    ++skipped;
+    return true;
+  }
+
+  /** Record that a tip was found at a node
+   * @param n JD */
+  public void tipped(final ASTNode n) {
+    for (ASTNode ¢ = n; ¢ != null; ¢ = ¢.getParent())
+      if (members.containsKey(¢)) {
+        tipped.add(¢);
+        return;
+      }
+  }
+
+  /** @return how many members the current round skipped so far */
+  public int skipped() {
+    return skipped;
+  }
+}
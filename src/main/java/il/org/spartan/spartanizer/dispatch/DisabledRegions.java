@@ -0,0 +1,99 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** The source ranges of the body declarations of a compilation unit which
+ * carry a disabler or an enabler in their Javadoc, computed once for its
+ * {@link AST}, and kept in its {@link NodeTable}. A node is disabled if the
+ * innermost such body declaration including it carries a disabler; see
+ * {@link disabling}. Nodes of an {@link AST} whose root is not a compilation
+ * unit are checked each by itself, since the {@link AST} may have several such
+ * roots, whose ranges overlap.
+ * @since 2016 */
+final class DisabledRegions {
+  /** A body declaration with a disabler or an enabler */
+  private static final class Region {
+    final int from;
+    final int to;
+    final boolean disabled;
+    /** The innermost region including this one */
+    final Region parent;
+
+    Region(final BodyDeclaration d, final Region parent) {
+      from = d.getStartPosition();
+      to = from + d.getLength();
+      disabled = disabling.isDisabledByIdentifier(d);
+      this.parent = parent;
+    }
+
+    boolean includes(final ASTNode ¢) {
+      return from <= ¢.getStartPosition() && ¢.getStartPosition() + ¢.getLength() <= to;
+    }
+  }
+
+  private static final NodeTable.Slot<DisabledRegions> slot = new NodeTable.Slot<>("disabled regions");
+
+  /** @param ¢ a node of a compilation unit
+   * @return the regions of the {@link AST} of the parameter */
+  static DisabledRegions of(final ASTNode ¢) {
+    final NodeTable t = NodeTable.of(¢);
+    final DisabledRegions $ = t.get(slot);
+    return $ != null ? $ : t.set(slot, new DisabledRegions((CompilationUnit) ¢.getRoot()));
+  }
+
+  /** @param ¢ JD
+   * @return <code><b>true</b></code> <em>iff</em> the parameter is disabled */
+  static boolean on(final ASTNode ¢) {
+    if (¢.getRoot() instanceof CompilationUnit)
+      return of(¢).includes(¢);
+    for (ASTNode $ = ¢; $ != null; $ = $.getParent())
+      if ($ instanceof BodyDeclaration && marked(((BodyDeclaration) $).getJavadoc()) != null)
+        return disabling.isDisabledByIdentifier((BodyDeclaration) $);
+    return false;
+  }
+
+  /** @param ¢ JD
+   * @return the body declaration documented by the parameter, if it carries a
+   *         disabler or an enabler, or <code><b>null</b></code> otherwise */
+  private static BodyDeclaration marked(final Javadoc ¢) {
+    final BodyDeclaration $ = ¢ != null && ¢.getParent() instanceof BodyDeclaration ? (BodyDeclaration) ¢.getParent() : null;
+    return $ != null && (disabling.isDisabledByIdentifier($) || disabling.hasJavaDocIdentifier($, disabling.enablers)) ? $ : null;
+  }
+
+  /** Regions, by their start position; of regions starting at the same
+   * position, the innermost */
+  private final TreeMap<Integer, Region> regions = new TreeMap<>();
+
+  /** Find the marked body declarations of a compilation unit, by scanning its
+   * comment list
+   * @param u JD */
+  private DisabledRegions(final CompilationUnit u) {
+    final List<BodyDeclaration> ds = new ArrayList<>();
+    for (final Object ¢ : u.getCommentList())
+      if (¢ instanceof Javadoc && marked((Javadoc) ¢) != null)
+        ds.add(marked((Javadoc) ¢));
+    final Deque<Region> enclosing = new ArrayDeque<>();
+    for (final BodyDeclaration d : ds) {
+      while (!enclosing.isEmpty() && !enclosing.peek().includes(d))
+        enclosing.pop();
+      final Region r = new Region(d, enclosing.peek());
+      enclosing.push(r);
+      regions.put(Integer.valueOf(r.from), r);
+    }
+  }
+
+  /** @param n JD
+   * @return <code><b>true</b></code> <em>iff</em> the parameter is in a
+   *         disabled region */
+  private boolean includes(final ASTNode n) {
+    if (regions.isEmpty() || n.getStartPosition() < 0)
+      return false;
+    final Map.Entry<Integer, Region> e = regions.floorEntry(Integer.valueOf(n.getStartPosition()));
+    Region $ = e == null ? null : e.getValue();
+    while ($ != null && !$.includes(n))
+      $ = $.parent;
+    return $ != null && $.disabled;
+  }
+}
@@ -0,0 +1,80 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.tipping.*;
+
+/** The tippers of a single node type, compiled by {@link Toolbox} into a table
+ * indexed by operator, in which each entry lists, in their original order, the
+ * tippers whose {@link Guard} admits that operator. The remaining conditions
+ * of guards are checked before {@link Tipper#canTip(ASTNode)}, so the first
+ * tipper found is the one a linear scan would have found.
+ * @since 2016 */
+final class DispatchTable {
+  /** Tippers admitted for a single operator */
+  private static final class Entry {
+    final Tipper<?>[] tippers;
+    final Guard<?>[] guards;
+    /** Position of each tipper in the original list */
+    final int[] positions;
+
+    Entry(final List<Tipper<? extends ASTNode>> ts, final String operator) {
+      final List<Integer> $ = new ArrayList<>();
+      for (int ¢ = 0; ¢ < ts.size(); ++¢)
+        if (ts.get(¢).guard() == null || ts.get(¢).guard().admitsOperator(operator))
+          $.add(Integer.valueOf(¢));
+      tippers = new Tipper<?>[$.size()];
+      guards = new Guard<?>[$.size()];
+      positions = new int[$.size()];
+      for (int ¢ = 0; ¢ < $.size(); ++¢) {
+        positions[¢] = $.get(¢).intValue();
+        tippers[¢] = ts.get(positions[¢]);
+        guards[¢] = tippers[¢].guard();
+      }
+    }
+  }
+
+  /** Number of tippers in the original list */
+  private final int size;
+  private final Map<String, Entry> byOperator = new HashMap<>();
+  /** Entry for nodes with no operator, or with an operator no guard lists */
+  private final Entry rest;
+
+  DispatchTable(final List<Tipper<? extends ASTNode>> ts) {
+    size = ts.size();
+    rest = new Entry(ts, null);
+    for (final Tipper<?> t : ts)
+      if (t.guard() != null && t.guard().operators() != null)
+        for (final String ¢ : t.guard().operators())
+          if (!byOperator.containsKey(¢))
+            byOperator.put(¢, new Entry(ts, ¢));
+  }
+
+  /** @param n JD
+   * @param avoided accumulates the number of calls to
+   *        {@link Tipper#canTip(ASTNode)} saved by guards
+   * @param s where calls to {@link Tipper#canTip(ASTNode)} are counted and
+   *        timed, or <code><b>null</b></code>
+   * @return first tipper in the original list which can tip the parameter, or
+   *         <code><b>null</b></code> if there is none */
+  @SuppressWarnings("unchecked") <N extends ASTNode> Tipper<N> firstTipper(final N n, final LongAdder avoided, final TipperStatistics s) {
+    final String operator = Guard.operator(n);
+    final Entry e = operator == null ? rest : byOperator.getOrDefault(operator, rest);
+    int rejected = 0;
+    for (int ¢ = 0; ¢ < e.tippers.length; ++¢) {
+      if (e.guards[¢] != null && !((Guard<N>) e.guards[¢]).holds(n)) {
+        ++rejected;
+        continue;
+      }
+      if (s == null ? ((Tipper<N>) e.tippers[¢]).canTip(n) : s.timedCanTip((Tipper<N>) e.tippers[¢], n)) {
+        avoided.add(rejected + e.positions[¢] - ¢);
+        return (Tipper<N>) e.tippers[¢];
+      }
+    }
+    avoided.add(rejected + size - e.tippers.length);
+    return null;
+  }
+}
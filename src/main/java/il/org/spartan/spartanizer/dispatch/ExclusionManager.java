@@ -4,32 +4,108 @@ import java.util.*;
 
 import org.eclipse.jdt.core.dom.*;
 
-import il.org.spartan.spartanizer.ast.navigate.*;
-
 /** Hack to stop the trimmer from making more tips. The class should die. It
  * serves the purpose of disabling tips of spartanization in a method, whose
  * parameters are changed. But this disabling does not belong here.
+ * <p>
+ * Since source ranges of nodes nest as the nodes do, excluded nodes are
+ * indexed by their source range, so that a node is checked by a single lookup
+ * of the outermost excluded range containing it, rather than by walking its
+ * ancestors. Nodes with no source range fall back to the walk.
  * @author Yossi Gil
  * @year 2015 */
 public final class ExclusionManager {
-  final Set<ASTNode> inner = new HashSet<>();
+  private static int end(final ASTNode ¢) {
+    return ¢.getStartPosition() + ¢.getLength();
+  }
+
+  private static boolean sameRange(final ASTNode n1, final ASTNode n2) {
+    return n1.getStartPosition() == n2.getStartPosition() && n1.getLength() == n2.getLength();
+  }
+
+  /** @param a JD
+   * @param n JD
+   * @return <code><b>true</b></code> <em>iff</em> the first parameter is an
+   *         ancestor of the second, or the second itself, provided that the
+   *         first's source range includes the second's */
+  private static boolean covers(final ASTNode a, final ASTNode n) {
+    if (a.getStartPosition() > n.getStartPosition() || end(a) < end(n))
+      return false;
+    if (!sameRange(a, n))
+      return true;
+    for (ASTNode ¢ = n; ¢ != null && sameRange(¢, a); ¢ = ¢.getParent())
+      if (¢ == a)
+        return true;
+    return false;
+  }
+
+  final Set<ASTNode> inner = Collections.newSetFromMap(new IdentityHashMap<>());
+  /** Outermost excluded nodes, by their start position; their ranges are
+   * disjoint */
+  private final TreeMap<Integer, ASTNode> outermost = new TreeMap<>();
+  /** The AST of the nodes in {@link #outermost} */
+  private AST ast;
+  /** Number of excluded nodes which are not indexed by their range */
+  private int unindexed;
 
   public void exclude(final ASTNode ¢) {
-    inner.add(¢);
+    if (!inner.add(¢))
+      return;
+    if (!indexable(¢))
+      ++unindexed;
+    else
+      index(¢);
   }
 
   public void excludeAll(final List<? extends ASTNode> ¢) {
-    inner.addAll(¢);
+    for (final ASTNode n : ¢)
+      exclude(n);
   }
 
   public boolean isExcluded(final ASTNode n) {
-    for (final ASTNode ancestor : hop.ancestors(n))
-      if (inner.contains(ancestor))
-        return true;
-    return false;
+    if (inner.isEmpty())
+      return false;
+    if (!indexable(n))
+      return walk(n);
+    final Map.Entry<Integer, ASTNode> $ = outermost.floorEntry(Integer.valueOf(n.getStartPosition()));
+    return $ != null && covers($.getValue(), n) || unindexed > 0 && walk(n);
+  }
+
+  void unExclude(final ASTNode n) {
+    if (!inner.remove(n))
+      return;
+    outermost.clear();
+    unindexed = 0;
+    for (final ASTNode ¢ : inner)
+      if (!indexable(¢))
+        ++unindexed;
+      else
+        index(¢);
+  }
+
+  private boolean indexable(final ASTNode ¢) {
+    if (¢.getStartPosition() < 0 || ¢.getLength() <= 0)
+      return false;
+    if (ast == null)
+      ast = ¢.getAST();
+    return ast == ¢.getAST();
   }
 
-  void unExclude(final ASTNode ¢) {
-    inner.remove(¢);
+  private void index(final ASTNode n) {
+    final Map.Entry<Integer, ASTNode> e = outermost.floorEntry(Integer.valueOf(n.getStartPosition()));
+    if (e != null && covers(e.getValue(), n))
+      return;
+    for (final Iterator<ASTNode> ¢ = outermost.subMap(Integer.valueOf(n.getStartPosition()), Integer.valueOf(end(n))).values().iterator(); ¢
+        .hasNext();)
+      if (end(¢.next()) <= end(n))
+        ¢.remove();
+    outermost.put(Integer.valueOf(n.getStartPosition()), n);
+  }
+
+  private boolean walk(final ASTNode n) {
+    for (ASTNode ¢ = n; ¢ != null; ¢ = ¢.getParent())
+      if (inner.contains(¢))
+        return true;
+    return false;
   }
-}
\ No newline at end of file
+}
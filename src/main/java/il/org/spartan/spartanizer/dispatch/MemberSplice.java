@@ -0,0 +1,112 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.cmdline.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** The members of a text trimmed by {@link Trimmer#fixed(String, Budget)}
+ * which were found in a {@link MemberCache}, and spliced into the text as
+ * they were found, together with the tips applied to each member, to record
+ * the members in the cache once the text reaches a fixed point.
+ * <p>
+ * A member is keyed by the shell of the text, see {@link DirtyRegions}. Members
+ * are recorded only if the trimmed text has the same shell, and the same number
+ * of members, as the original, and if no round changed the number of members;
+ * each member is then taken to be trimmed into the member at its place.
+ * @since 2016 */
+final class MemberSplice {
+  final MemberCache cache;
+  final long signature;
+  /** The text to trim, with the members found in the cache spliced in */
+  final String text;
+  /** Texts of the members spliced in */
+  final Set<String> spliced = new HashSet<>();
+  private String shell;
+  /** Texts of the members of the original text */
+  private final List<String> members = new ArrayList<>();
+  /** Keys of the members of the original text */
+  private final List<String> keys = new ArrayList<>();
+  /** Names of the tippers applied to each member so far */
+  private final List<List<String>> tips = new ArrayList<>();
+  /** Whether the members of all rounds so far are those of the original
+   * text */
+  private boolean aligned = true;
+
+  MemberSplice(final MemberCache cache, final long signature, final String from) {
+    this.cache = cache;
+    this.signature = signature;
+    text = splice(from);
+  }
+
+  /** Attribute the tips applied in a round to the members they were found in
+   * @param u the unit of the round
+   * @param applied the tips applied in the round */
+  void applied(final CompilationUnit u, final List<TipScheduler.Candidate> applied) {
+    final List<BodyDeclaration> ds = DirtyRegions.members(u);
+    if (ds.size() != tips.size())
+      aligned = false;
+    if (!aligned)
+      return;
+    final Map<ASTNode, List<String>> ts = new IdentityHashMap<>();
+    for (int ¢ = 0; ¢ < ds.size(); ++¢)
+      ts.put(ds.get(¢), tips.get(¢));
+    for (final TipScheduler.Candidate c : applied)
+      for (ASTNode ¢ = c.node; ¢ != null; ¢ = ¢.getParent())
+        if (ts.containsKey(¢)) {
+          ts.get(¢).add(monitor.className(c.tipper.getClass()));
+          break;
+        }
+  }
+
+  /** Record the members of a text at fixed point in the cache
+   * @param fixed the text trimmed from {@link #text} */
+  void record(final String fixed) {
+    if (!aligned)
+      return;
+    final List<BodyDeclaration> ds = DirtyRegions.members((CompilationUnit) makeAST.COMPILATION_UNIT.from(fixed));
+    if (ds.size() != keys.size() || !DirtyRegions.shell(fixed, ds).equals(shell))
+      return;
+    for (int ¢ = 0; ¢ < ds.size(); ++¢) {
+      final String $ = fixed.substring(ds.get(¢).getStartPosition(), ds.get(¢).getStartPosition() + ds.get(¢).getLength());
+      cache.put(keys.get(¢), $, tips.get(¢));
+      if (!$.equals(members.get(¢)))
+        cache.put(MemberCache.key(signature, shell, $), $, Collections.emptyList());
+    }
+  }
+
+  /** @return the key of the shell of {@link #text}, for
+   *         {@link DirtyRegions#trust(Collection, Object)} */
+  String shell() {
+    return shell;
+  }
+
+  private String splice(final String from) {
+    final List<BodyDeclaration> ds = DirtyRegions.members((CompilationUnit) makeAST.COMPILATION_UNIT.from(from));
+    shell = DirtyRegions.shell(from, ds);
+    final StringBuilder $ = new StringBuilder();
+    int end = 0;
+    for (final BodyDeclaration ¢ : ds) {
+      // Members of a recovered, malformed, AST may overlap
+      if (¢.getStartPosition() < end) {
+        aligned = false;
+        spliced.clear();
+        return from;
+      }
+      final String member = from.substring(¢.getStartPosition(), ¢.getStartPosition() + ¢.getLength());
+      final String key = MemberCache.key(signature, shell, member);
+      final MemberCache.Entry e = cache.get(key);
+      members.add(member);
+      keys.add(key);
+      tips.add(e == null ? new ArrayList<>() : new ArrayList<>(e.tips));
+      $.append(from, end, ¢.getStartPosition()).append(e == null ? member : e.output);
+      if (e != null)
+        spliced.add(e.output);
+      end = ¢.getStartPosition() + ¢.getLength();
+    }
+    return $.append(from, end, from.length()) + "";
+  }
+}
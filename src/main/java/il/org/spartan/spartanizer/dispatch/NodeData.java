@@ -1,11 +1,23 @@
 package il.org.spartan.spartanizer.dispatch;
 
+import java.util.*;
+import java.util.concurrent.*;
+
 import org.eclipse.jdt.core.dom.*;
 
-/** Black box implementation of data storing in {@link ASTNode}s using Objects
- * map.
+import il.org.spartan.spartanizer.dispatch.NodeTable.*;
+
+/** Black box implementation of data storing in {@link ASTNode}s, by property
+ * name. Data are kept in the {@link NodeTable} of the node, in a
+ * {@link Slot} for each property name.
  * @author Ori Roth */
 public class NodeData {
+  private static final Map<String, Slot<Object>> slots = new ConcurrentHashMap<>();
+
+  private static Slot<Object> slot(final String key) {
+    return slots.computeIfAbsent(key, Slot::new);
+  }
+
   // TODO Roth: attachment.of(n).get(x)
   // TODO: Yossi Gil, erase the above as per #1
   /** Get property from node.
@@ -14,7 +26,7 @@ public class NodeData {
    * @return key property of node, null if it does not have this property. */
   @SuppressWarnings("unchecked") //
   public static <T> T get(final ASTNode n, final String key) {
-    return n == null ? null : (T) n.getProperty(key);
+    return n == null ? null : (T) NodeTable.of(n).get(slot(key), n);
   }
 
   /** Checks node has a property.
@@ -23,7 +35,7 @@ public class NodeData {
    * @return <code><b>true</b></code> <em>iff</em> node contains the key
    *         property */
   public static boolean has(final ASTNode n, final String key) {
-    return n != null && n.properties().keySet().contains(key);
+    return n != null && NodeTable.of(n).has(slot(key), n);
   }
 
   /** Sets a binary flag true.
@@ -40,7 +52,7 @@ public class NodeData {
   public static <T> T set(final ASTNode n, final String key, final T value) {
     if (n == null)
       return null;
-    n.setProperty(key, value);
+    NodeTable.of(n).set(slot(key), n, value);
     return value;
   }
 
@@ -49,6 +61,6 @@ public class NodeData {
    * @param key property name */
   public static void unset(final ASTNode n, final String key) {
     if (n != null)
-      n.setProperty(key, null);
+      NodeTable.of(n).unset(slot(key), n);
   }
 }
@@ -0,0 +1,161 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** A side table of data attached to the nodes of a single {@link AST}, i.e.,
+ * of a single compilation unit, replacing the property maps of
+ * {@link ASTNode}. Data are kept in {@link Slot}s; a slot of
+ * {@link Boolean}s serves as a flag. Nodes are looked up by identity.
+ * <p>
+ * The table of an {@link AST} is found by {@link #of(ASTNode)}. Only the roots
+ * of the nodes it holds data of keep it alive, so it never outlives the
+ * {@link AST}; it may also be dropped wholesale, by {@link #discard(AST)},
+ * once the compilation unit is done.
+ * @since 2016 */
+public final class NodeTable {
+  /** A kind of datum which may be attached to nodes
+   * @param <T> type of the datum */
+  public static final class Slot<T> {
+    private static final AtomicInteger count = new AtomicInteger();
+    final int index = count.getAndIncrement();
+    private final String name;
+
+    public Slot(final String name) {
+      this.name = name;
+    }
+
+    @Override public String toString() {
+      return name;
+    }
+  }
+
+  /** Property of the roots which keep a table alive */
+  private static final String anchor = NodeTable.class.getName();
+  /** Tables, by the {@link AST} of their nodes */
+  private static final Map<AST, WeakReference<NodeTable>> tables = new WeakHashMap<>();
+  /** The table last found by the current thread */
+  private static final ThreadLocal<WeakReference<NodeTable>> last = new ThreadLocal<>();
+
+  /** Drop the table of an {@link AST}, with all data attached to its nodes
+   * @param ¢ JD */
+  public static void discard(final AST ¢) {
+    final NodeTable $;
+    synchronized (tables) {
+      $ = deref(tables.remove(¢));
+    }
+    if ($ == null)
+      return;
+    $.data.clear();
+    Arrays.fill($.whole, null);
+    if ($ == deref(last.get()))
+      last.remove();
+  }
+
+  /** @param ¢ JD
+   * @return the table of the {@link AST} of the parameter */
+  public static NodeTable of(final ASTNode ¢) {
+    final AST a = ¢.getAST();
+    NodeTable $ = deref(last.get());
+    if ($ != null && $.ast == a)
+      return $;
+    synchronized (tables) {
+      $ = deref(tables.get(a));
+      if ($ == null)
+        tables.put(a, ($ = new NodeTable(a)).self);
+    }
+    $.anchor(¢);
+    last.set($.self);
+    return $;
+  }
+
+  private static NodeTable deref(final WeakReference<NodeTable> ¢) {
+    return ¢ == null ? null : ¢.get();
+  }
+
+  private final AST ast;
+  private final WeakReference<NodeTable> self = new WeakReference<>(this);
+  /** Data of each slot, by slot index */
+  private final List<Map<ASTNode, Object>> data = new ArrayList<>();
+  /** Data attached to the {@link AST} as a whole, by slot index */
+  private Object[] whole = new Object[4];
+
+  private NodeTable(final AST ast) {
+    this.ast = ast;
+  }
+
+  /** @param ¢ JD
+   * @return the datum of the slot attached to the {@link AST} as a whole, or
+   *         <code><b>null</b></code> if there is none */
+  @SuppressWarnings("unchecked") public <T> T get(final Slot<T> ¢) {
+    return ¢.index >= whole.length ? null : (T) whole[¢.index];
+  }
+
+  /** @param s JD
+   * @param n JD
+   * @return the datum of the slot attached to the node, or
+   *         <code><b>null</b></code> if there is none */
+  @SuppressWarnings("unchecked") public <T> T get(final Slot<T> s, final ASTNode n) {
+    final Map<ASTNode, Object> $ = data(s);
+    return $ == null ? null : (T) $.get(n);
+  }
+
+  /** @param s JD
+   * @param n JD
+   * @return <code><b>true</b></code> <em>iff</em> a datum of the slot is
+   *         attached to the node */
+  public boolean has(final Slot<?> s, final ASTNode n) {
+    final Map<ASTNode, Object> $ = data(s);
+    return $ != null && $.containsKey(n);
+  }
+
+  /** Attach a datum to a node
+   * @param s JD
+   * @param n JD
+   * @param value JD
+   * @return the value */
+  public <T> T set(final Slot<T> s, final ASTNode n, final T value) {
+    while (s.index >= data.size())
+      data.add(null);
+    if (data.get(s.index) == null)
+      data.set(s.index, new IdentityHashMap<>());
+    data.get(s.index).put(n, value);
+    anchor(n);
+    return value;
+  }
+
+  /** Attach a datum to the {@link AST} as a whole
+   * @param s JD
+   * @param value JD
+   * @return the value */
+  public <T> T set(final Slot<T> s, final T value) {
+    if (s.index >= whole.length)
+      whole = Arrays.copyOf(whole, Math.max(2 * whole.length, s.index + 1));
+    whole[s.index] = value;
+    return value;
+  }
+
+  /** Detach the datum of a slot from a node
+   * @param s JD
+   * @param n JD */
+  public void unset(final Slot<?> s, final ASTNode n) {
+    final Map<ASTNode, Object> $ = data(s);
+    if ($ != null)
+      $.remove(n);
+  }
+
+  /** Keep this table alive as long as the root of a node is
+   * @param ¢ JD */
+  private void anchor(final ASTNode ¢) {
+    final ASTNode $ = ¢.getRoot();
+    if ($.getProperty(anchor) != this)
+      $.setProperty(anchor, this);
+  }
+
+  private Map<ASTNode, Object> data(final Slot<?> ¢) {
+    return ¢.index >= data.size() ? null : data.get(¢.index);
+  }
+}
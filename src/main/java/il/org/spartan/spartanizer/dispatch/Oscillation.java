@@ -0,0 +1,64 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+/** Watches the successive states of a text being trimmed, round after round,
+ * to tell when a state repeats: tippers which undo each other would otherwise
+ * flip the text back and forth until some pass limit. Only a 64 bit hash of
+ * each state is kept.
+ * @since 2016 */
+public final class Oscillation {
+  /** @param ¢ JD
+   * @return a 64 bit FNV-1a hash of the text */
+  static long hash(final String ¢) {
+    long $ = 0xcbf29ce484222325L;
+    for (int i = 0; i < ¢.length(); ++i)
+      $ = ($ ^ ¢.charAt(i)) * 0x100000001b3L;
+    return $;
+  }
+
+  /** Round in which each state was first seen, by its hash */
+  private final Map<Long, Integer> seen = new HashMap<>();
+  /** Tippers which fired in each round */
+  private final List<Set<Class<?>>> firing = new ArrayList<>();
+  /** Round of the repeated state, or -1 */
+  private int repeated = -1;
+
+  /** @return number of rounds in the cycle, or zero if no state repeated */
+  public int period() {
+    return repeated < 0 ? 0 : firing.size() - 1 - repeated;
+  }
+
+  /** Record the state after a round; the first state recorded is the
+   * initial one
+   * @param text the state
+   * @param tippers classes of the tippers which fired in the round
+   * @return whether the state was seen before */
+  public boolean repeats(final String text, final Collection<Class<?>> tippers) {
+    firing.add(new LinkedHashSet<>(tippers));
+    final Integer $ = seen.putIfAbsent(Long.valueOf(hash(text)), Integer.valueOf(firing.size() - 1));
+    if ($ == null)
+      return false;
+    repeated = $.intValue();
+    return true;
+  }
+
+  /** @return classes of the tippers which fired in the rounds of the cycle,
+   *         which are the ones undoing each other */
+  public Set<Class<?>> tippers() {
+    final Set<Class<?>> $ = new LinkedHashSet<>();
+    if (repeated >= 0)
+      for (int ¢ = repeated + 1; ¢ < firing.size(); ++¢)
+        $.addAll(firing.get(¢));
+    return $;
+  }
+
+  @Override public String toString() {
+    if (repeated < 0)
+      return "no cycle";
+    final StringBuilder $ = new StringBuilder("cycle of ").append(period()).append(" rounds:");
+    for (final Class<?> ¢ : tippers())
+      $.append(' ').append(¢.getSimpleName());
+    return $ + "";
+  }
+}
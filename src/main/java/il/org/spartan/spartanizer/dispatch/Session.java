@@ -0,0 +1,162 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import il.org.spartan.spartanizer.cmdline.*;
+
+/** The state of a single spartanization session: the {@link Toolbox} it uses,
+ * and whatever the classes of the engine would otherwise keep in static
+ * fields, such as the counters of {@link il.org.spartan.spartanizer.cmdline.TrimmerLog}
+ * and the statistics of {@link il.org.spartan.spartanizer.research.Logger}.
+ * Sessions are independent, so that many of them may run concurrently in one
+ * process.
+ * <p>
+ * Code runs in a session by {@link #call(Supplier)} or {@link #run(Runnable)},
+ * which make it {@link #current()} for the calling thread; a thread not running
+ * in any session uses a global one, whose {@link Toolbox} follows the
+ * preferences.
+ * @since 2016 */
+public final class Session {
+  private static final Session global = new Session(null);
+  private static final ThreadLocal<Session> current = new ThreadLocal<>();
+
+  /** @return the session of the current thread */
+  public static Session current() {
+    final Session $ = current.get();
+    return $ != null ? $ : global;
+  }
+
+  /** <code><b>null</b></code> in the global session */
+  private final Toolbox toolbox;
+  /** State of classes of the engine, by its class */
+  private final Map<Class<?>, Object> state = new ConcurrentHashMap<>();
+  /** <code><b>null</b></code> unless {@link #collectStatistics()} was called */
+  private volatile TipperStatistics statistics;
+  /** <code><b>null</b></code> unless {@link #startTrace(int)} was called */
+  private volatile Trace trace;
+  /** <code><b>null</b></code> unless {@link #useCache(MemberCache)} was
+   * called */
+  private volatile MemberCache cache;
+
+  /** Instantiates this class, with a snapshot of the tippers enabled by the
+   * current preferences */
+  public Session() {
+    this(Toolbox.defaultInstance());
+  }
+
+  /** @param toolbox the tippers of this session; should be
+   *        {@link Toolbox#frozen()} if the session is used by several threads */
+  public Session(final Toolbox toolbox) {
+    this.toolbox = toolbox;
+  }
+
+  /** Run a computation in this session
+   * @param s JD
+   * @return the result of the computation */
+  public <T> T call(final Supplier<T> s) {
+    final Session outer = current.get();
+    current.set(this);
+    try {
+      return s.get();
+    } finally {
+      if (outer != null)
+        current.set(outer);
+      else
+        current.remove();
+    }
+  }
+
+  /** @param from what to process
+   * @return trimmed text, as computed by {@link Trimmer#fixed(String)} in this
+   *         session */
+  public String fixed(final String from) {
+    return call(() -> trimmer().fixed(from));
+  }
+
+  /** @return the cache of members of this session, or
+   *         <code><b>null</b></code> if there is none */
+  public MemberCache cache() {
+    return cache;
+  }
+
+  /** Start counting and timing the calls to tippers made in this session
+   * @return the statistics of this session */
+  public TipperStatistics collectStatistics() {
+    return collectStatistics(false);
+  }
+
+  /** Start counting and timing the calls to tippers made in this session
+   * @param costs whether to account also for CPU time and allocations, see
+   *        {@link TipperStatistics}; ignored if statistics are already
+   *        collected
+   * @return the statistics of this session */
+  public synchronized TipperStatistics collectStatistics(final boolean costs) {
+    if (statistics == null)
+      statistics = new TipperStatistics(costs);
+    return statistics;
+  }
+
+  /** Run a computation in this session
+   * @param ¢ JD */
+  public void run(final Runnable ¢) {
+    call(() -> {
+      ¢.run();
+      return null;
+    });
+  }
+
+  /** @param c the class whose state is sought
+   * @param s makes the state of the class, if there is none yet
+   * @return the state of the class in this session */
+  public <T> T state(final Class<T> c, final Supplier<T> s) {
+    final Object $ = state.get(c);
+    return c.cast($ != null ? $ : state.computeIfAbsent(c, __ -> s.get()));
+  }
+
+  /** @return the statistics of the tippers used in this session, or
+   *         <code><b>null</b></code> if the session does not collect them */
+  public TipperStatistics statistics() {
+    return statistics;
+  }
+
+  /** Start tracing the engine in this session, see {@link Trace}
+   * @param capacity how many of the latest events are kept
+   * @return the trace */
+  public Trace startTrace(final int capacity) {
+    return trace = new Trace(capacity);
+  }
+
+  /** Stop tracing the engine in this session
+   * @return the trace so far, or <code><b>null</b></code> if there is none */
+  public Trace stopTrace() {
+    final Trace $ = trace;
+    trace = null;
+    return $;
+  }
+
+  /** @return the trace of this session, or <code><b>null</b></code> if the
+   *         session is not traced */
+  public Trace trace() {
+    return trace;
+  }
+
+  /** @return the tippers of this session */
+  public Toolbox toolbox() {
+    return toolbox != null ? toolbox : Toolbox.defaultInstance();
+  }
+
+  /** @return a new {@link Trimmer} using the tippers of this session */
+  public Trimmer trimmer() {
+    return new Trimmer(toolbox());
+  }
+
+  /** Splice members which were spartanized before, rather than tipping them
+   * again, see {@link Trimmer#fixed(String, Budget)}
+   * @param ¢ where the members are kept, or <code><b>null</b></code> for none
+   * @return the parameter */
+  public MemberCache useCache(final MemberCache ¢) {
+    return cache = ¢;
+  }
+}
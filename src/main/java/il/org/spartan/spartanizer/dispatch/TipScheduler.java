@@ -0,0 +1,125 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tipping.*;
+import il.org.spartan.utils.*;
+
+/** Chooses the tips applied together in a round of
+ * {@link Trimmer#fixed(String, Budget)}. Rather than letting the first tip
+ * found exclude a whole subtree, tips are collected from all of the
+ * compilation unit, each with its <em>footprint</em>: the range of the tip,
+ * merged with the ranges of the nodes its tipper excluded, i.e., the nodes the
+ * tip reads or rewrites beyond its own range. Two tips conflict if their
+ * footprints overlap.
+ * <p>
+ * Footprints either nest, are disjoint, or cross. A tip whose footprint crosses
+ * that of an earlier one is deferred to the next round; the others form a
+ * forest by inclusion, in which a maximum set of mutually independent tips is
+ * found by keeping, of each tree, either its root or the best of its
+ * subtrees, whichever holds more tips. On ties the root is kept, as the first
+ * tip found used to be.
+ * @since 2016 */
+final class TipScheduler {
+  /** A tip found in the round, and where */
+  static final class Candidate {
+    final Tip tip;
+    final Tipper<?> tipper;
+    final ASTNode node;
+    final Range footprint;
+    /** Position of the tip in the order in which tips were found */
+    final int order;
+    final List<Candidate> children = new ArrayList<>();
+    /** Size of the largest set of independent tips in the subtree */
+    int best;
+
+    Candidate(final Tip tip, final Tipper<?> tipper, final ASTNode node, final Range footprint, final int order) {
+      this.tip = tip;
+      this.tipper = tipper;
+      this.node = node;
+      this.footprint = footprint;
+      this.order = order;
+    }
+
+    int childrenBest() {
+      int $ = 0;
+      for (final Candidate ¢ : children)
+        $ += ¢.best;
+      return $;
+    }
+  }
+
+  static Range footprint(final Tip t, final Collection<ASTNode> excluded) {
+    Range $ = t;
+    for (final ASTNode ¢ : excluded)
+      if (¢.getStartPosition() >= 0)
+        $ = $.merge(new Range(¢.getStartPosition(), ¢.getStartPosition() + ¢.getLength()));
+    return $;
+  }
+
+  private final List<Candidate> candidates = new ArrayList<>();
+  private int deferred;
+  private List<Candidate> scheduled = Collections.emptyList();
+
+  /** @param t a tip found in the round
+   * @param w the tipper which made it
+   * @param n the node it was found at
+   * @param excluded the nodes the tipper excluded while making it */
+  void add(final Tip t, final Tipper<?> w, final ASTNode n, final Collection<ASTNode> excluded) {
+    candidates.add(new Candidate(t, w, n, footprint(t, excluded), candidates.size()));
+  }
+
+  /** @return number of tips found so far */
+  int candidates() {
+    return candidates.size();
+  }
+
+  /** @return number of tips the last {@link #schedule()} deferred */
+  int deferred() {
+    return deferred;
+  }
+
+  /** @return the tips chosen by the last {@link #schedule()} */
+  List<Candidate> scheduled() {
+    return scheduled;
+  }
+
+  /** @return a maximum set of mutually independent tips among those found,
+   *         in the order they were found */
+  List<Candidate> schedule() {
+    final List<Candidate> sorted = new ArrayList<>(candidates);
+    sorted.sort((c1, c2) -> c1.footprint.from != c2.footprint.from ? Integer.compare(c1.footprint.from, c2.footprint.from)
+        : c1.footprint.to != c2.footprint.to ? Integer.compare(c2.footprint.to, c1.footprint.to) : Integer.compare(c1.order, c2.order));
+    final List<Candidate> roots = new ArrayList<>();
+    final Deque<Candidate> open = new ArrayDeque<>();
+    for (final Candidate ¢ : sorted) {
+      ¢.children.clear();
+      ¢.best = 0;
+      while (!open.isEmpty() && open.peek().footprint.to <= ¢.footprint.from)
+        open.pop();
+      if (open.isEmpty())
+        roots.add(¢);
+      else if (¢.footprint.to <= open.peek().footprint.to)
+        open.peek().children.add(¢);
+      else
+        continue;
+      open.push(¢);
+    }
+    for (int ¢ = sorted.size() - 1; ¢ >= 0; --¢)
+      sorted.get(¢).best = Math.max(1, sorted.get(¢).childrenBest());
+    final List<Candidate> $ = new ArrayList<>();
+    for (final Deque<Candidate> pending = new ArrayDeque<>(roots); !pending.isEmpty();) {
+      final Candidate c = pending.pop();
+      if (c.childrenBest() <= 1)
+        $.add(c);
+      else
+        pending.addAll(c.children);
+    }
+    $.sort((c1, c2) -> Integer.compare(c1.order, c2.order));
+    deferred = candidates.size() - $.size();
+    return scheduled = $;
+  }
+}
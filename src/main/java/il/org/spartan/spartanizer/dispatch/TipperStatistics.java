@@ -0,0 +1,385 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jdt.core.dom.rewrite.*;
+import org.eclipse.text.edits.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Per {@link Tipper} class counts and latencies of a {@link Session}: calls
+ * to {@link Tipper#canTip(ASTNode)} and how many of them returned
+ * <code><b>true</b></code>, calls to {@link Tipper#tip(ASTNode)} and how many
+ * of the tips were applied, and the time spent in each method, in total and
+ * as a histogram. A session collects these only after
+ * {@link Session#collectStatistics()}; until then, the engine does not even
+ * read the clock.
+ * <p>
+ * Made by {@link Session#collectStatistics(boolean)}, the statistics also
+ * account for the costs of the tippers: the CPU time and the bytes allocated
+ * by the current thread, as told by {@link ThreadMXBean}, in
+ * {@link Tipper#canTip(ASTNode)}, {@link Tipper#tip(ASTNode)} and
+ * {@link Tip#go(ASTRewrite, TextEditGroup)}. Reading these is much slower than
+ * reading the clock. {@link #costs()} ranks the tippers, and the categories of
+ * tippers, by these costs.
+ * <p>
+ * Histograms have a bucket per power of two: bucket <code>i</code> counts the
+ * calls which took at least <code>2<sup>i-1</sup></code> and less than
+ * <code>2<sup>i</sup></code> nanoseconds.
+ * @since 2016 */
+public final class TipperStatistics {
+  /** Number of buckets of a histogram; the last bucket takes all calls longer
+   * than about nine minutes */
+  public static final int BUCKETS = 40;
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  /** @param t JD
+   * @param n JD
+   * @return whether the tipper can tip the node, counted and timed if the
+   *         current session collects statistics */
+  public static <N extends ASTNode> boolean canTip(final Tipper<N> t, final N n) {
+    final TipperStatistics $ = Session.current().statistics();
+    return $ == null ? t.canTip(n) : $.timedCanTip(t, n);
+  }
+
+  /** Count a tip as applied, if the current session collects statistics
+   * @param ¢ the tipper which made the tip */
+  public static void applied(final Tipper<?> ¢) {
+    final TipperStatistics $ = Session.current().statistics();
+    if ($ != null)
+      $.of(¢.getClass()).applied.increment();
+  }
+
+  /** Apply a tip, timed if the current session collects statistics
+   * @param t JD
+   * @param r JD
+   * @param g JD */
+  public static void go(final Tip t, final ASTRewrite r, final TextEditGroup g) {
+    final TipperStatistics s = Session.current().statistics();
+    if (s == null || t.tipperClass == null) {
+      t.go(r, g);
+      return;
+    }
+    final long start = System.nanoTime(), cpu = s.cpu(), bytes = s.allocated();
+    try {
+      t.go(r, g);
+    } finally {
+      s.add(s.of(t.tipperClass).go, start, cpu, bytes);
+    }
+  }
+
+  /** @param t JD
+   * @param n JD
+   * @param m JD
+   * @return the tip of the tipper for the node, counted and timed if the
+   *         current session collects statistics
+   * @throws TipperFailure */
+  public static <N extends ASTNode> Tip tip(final Tipper<N> t, final N n, final ExclusionManager m) throws TipperFailure {
+    final TipperStatistics s = Session.current().statistics();
+    if (s == null)
+      return t.tip(n, m);
+    final long start = System.nanoTime(), cpu = s.cpu(), bytes = s.allocated();
+    try {
+      return t.tip(n, m);
+    } finally {
+      s.add(s.of(t.getClass()).tip, start, cpu, bytes);
+    }
+  }
+
+  /** @param c a tipper class
+   * @return name of the first {@link TipperCategory} the class, or its
+   *         nearest superclass, declares it implements */
+  static String category(final Class<?> c) {
+    for (Class<?> $ = c; $ != null; $ = $.getSuperclass())
+      for (final Class<?> ¢ : $.getInterfaces())
+        if (¢.getEnclosingClass() == TipperCategory.class)
+          return ¢.getSimpleName();
+    return "Other";
+  }
+
+  static int bucket(final long nanos) {
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+  }
+
+  private static String csvHistogram(final long[] ¢) {
+    final StringBuilder $ = new StringBuilder();
+    for (int i = 0; i < ¢.length; ++i)
+      if (¢[i] != 0)
+        $.append($.length() == 0 ? "" : " ").append(i).append(':').append(¢[i]);
+    return $ + "";
+  }
+
+  private static String jsonHistogram(final long[] ¢) {
+    int length = ¢.length;
+    while (length > 0 && ¢[length - 1] == 0)
+      --length;
+    final StringBuilder $ = new StringBuilder("[");
+    for (int i = 0; i < length; ++i)
+      $.append(i == 0 ? "" : ",").append(¢[i]);
+    return $.append("]") + "";
+  }
+
+  private static String percents(final long part, final long whole) {
+    return String.format(Locale.ROOT, "%5.1f%%", Double.valueOf(whole == 0 ? 0 : 100.0 * part / whole));
+  }
+
+  /** Counts, latencies and costs of a single method of a tipper */
+  private static final class Method {
+    final LongAdder calls = new LongAdder();
+    final LongAdder nanos = new LongAdder();
+    final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    final LongAdder cpuNanos = new LongAdder();
+    final LongAdder allocatedBytes = new LongAdder();
+
+    void add(final long ¢) {
+      calls.increment();
+      nanos.add(¢);
+      histogram.incrementAndGet(bucket(¢));
+    }
+
+    long[] histogram() {
+      final long[] $ = new long[BUCKETS];
+      for (int ¢ = 0; ¢ < BUCKETS; ++¢)
+        $[¢] = histogram.get(¢);
+      return $;
+    }
+  }
+
+  /** Counters of a single tipper class */
+  private static final class Counters {
+    final Method canTip = new Method();
+    final LongAdder canTipTrue = new LongAdder();
+    final Method tip = new Method();
+    final LongAdder applied = new LongAdder();
+    final Method go = new Method();
+  }
+
+  /** Immutable statistics of a single tipper class, as of the time of
+   * {@link TipperStatistics#snapshot()} */
+  public static final class Entry {
+    public final Class<?> tipper;
+    public final long canTipCalls;
+    public final long canTipTrue;
+    public final long canTipNanos;
+    public final long tipCalls;
+    public final long tipNanos;
+    public final long applied;
+    /** Nanoseconds spent in {@link Tip#go(ASTRewrite, TextEditGroup)} */
+    public final long goNanos;
+    /** CPU time, in nanoseconds, of all methods; zero unless costs are
+     * accounted for */
+    public final long cpuNanos;
+    /** Bytes allocated by all methods; zero unless costs are accounted for */
+    public final long allocatedBytes;
+    private final long[] canTipHistogram;
+    private final long[] tipHistogram;
+
+    Entry(final Class<?> tipper, final Counters ¢) {
+      this.tipper = tipper;
+      canTipCalls = ¢.canTip.calls.sum();
+      canTipTrue = ¢.canTipTrue.sum();
+      canTipNanos = ¢.canTip.nanos.sum();
+      tipCalls = ¢.tip.calls.sum();
+      tipNanos = ¢.tip.nanos.sum();
+      applied = ¢.applied.sum();
+      goNanos = ¢.go.nanos.sum();
+      cpuNanos = ¢.canTip.cpuNanos.sum() + ¢.tip.cpuNanos.sum() + ¢.go.cpuNanos.sum();
+      allocatedBytes = ¢.canTip.allocatedBytes.sum() + ¢.tip.allocatedBytes.sum() + ¢.go.allocatedBytes.sum();
+      canTipHistogram = ¢.canTip.histogram();
+      tipHistogram = ¢.tip.histogram();
+    }
+
+    /** @return a copy of the histogram of latencies of
+     *         {@link Tipper#canTip(ASTNode)} */
+    public long[] canTipHistogram() {
+      return canTipHistogram.clone();
+    }
+
+    /** @return fraction of the calls to {@link Tipper#canTip(ASTNode)} which
+     *         returned <code><b>true</b></code> */
+    public double hitRate() {
+      return canTipCalls == 0 ? 0 : (double) canTipTrue / canTipCalls;
+    }
+
+    /** @return the name of the category of the tipper, see
+     *         {@link TipperCategory} */
+    public String category() {
+      return TipperStatistics.category(tipper);
+    }
+
+    /** @return nanoseconds spent in the tipper and in its tips */
+    public long nanos() {
+      return canTipNanos + tipNanos + goNanos;
+    }
+
+    /** @return a copy of the histogram of latencies of
+     *         {@link Tipper#tip(ASTNode)} */
+    public long[] tipHistogram() {
+      return tipHistogram.clone();
+    }
+  }
+
+  private final Map<Class<?>, Counters> counters = new ConcurrentHashMap<>();
+  /** Whether CPU time and allocations are accounted for */
+  private final boolean costs;
+
+  /** Instantiates this class, without accounting for costs */
+  public TipperStatistics() {
+    this(false);
+  }
+
+  /** @param costs whether to account for CPU time and allocations */
+  public TipperStatistics(final boolean costs) {
+    this.costs = costs;
+  }
+
+  /** @return a table of the tippers ranked by CPU time, and then of the
+   *         categories of tippers ranked likewise, with their shares of all
+   *         CPU time and of all bytes allocated */
+  public String costs() {
+    final List<Entry> es = snapshot();
+    es.sort((e1, e2) -> Long.compare(e2.cpuNanos, e1.cpuNanos));
+    long cpu = 0, bytes = 0;
+    final Map<String, long[]> categories = new HashMap<>();
+    for (final Entry ¢ : es) {
+      cpu += ¢.cpuNanos;
+      bytes += ¢.allocatedBytes;
+      final long[] c = categories.computeIfAbsent(¢.category(), __ -> new long[2]);
+      c[0] += ¢.cpuNanos;
+      c[1] += ¢.allocatedBytes;
+    }
+    final StringBuilder $ = new StringBuilder(String.format("%-40s %-20s %12s %7s %14s %7s\n", "Tipper", "Category", "CPU ms", "CPU", "Bytes", "Bytes"));
+    for (final Entry ¢ : es)
+      $.append(String.format(Locale.ROOT, "%-40s %-20s %12.1f %s %14d %s\n", ¢.tipper.getSimpleName(), ¢.category(), Double.valueOf(¢.cpuNanos / 1E6),
+          percents(¢.cpuNanos, cpu), Long.valueOf(¢.allocatedBytes), percents(¢.allocatedBytes, bytes)));
+    final List<String> ranked = new ArrayList<>(categories.keySet());
+    ranked.sort((c1, c2) -> Long.compare(categories.get(c2)[0], categories.get(c1)[0]));
+    $.append(String.format("\n%-61s %12s %7s %14s %7s\n", "Category", "CPU ms", "CPU", "Bytes", "Bytes"));
+    for (final String ¢ : ranked)
+      $.append(String.format(Locale.ROOT, "%-61s %12.1f %s %14d %s\n", ¢, Double.valueOf(categories.get(¢)[0] / 1E6), percents(categories.get(¢)[0], cpu),
+          Long.valueOf(categories.get(¢)[1]), percents(categories.get(¢)[1], bytes)));
+    return $ + "";
+  }
+
+  /** Write the current {@link #snapshot()} as a CSV file
+   * @param fileName without the <code>.csv</code> suffix
+   * @return name of the file written
+   * @throws IOException */
+  public String csv(final String fileName) throws IOException {
+    final CSVStatistics $ = new CSVStatistics(fileName, "tipper");
+    for (final Entry ¢ : snapshot()) {
+      $.put("tipper", ¢.tipper.getSimpleName());
+      $.put("canTip calls", ¢.canTipCalls);
+      $.put("canTip true", ¢.canTipTrue);
+      $.put("hit rate", ¢.hitRate());
+      $.put("canTip nanos", ¢.canTipNanos);
+      $.put("tip calls", ¢.tipCalls);
+      $.put("tip nanos", ¢.tipNanos);
+      $.put("applied", ¢.applied);
+      $.put("go nanos", ¢.goNanos);
+      $.put("cpu nanos", ¢.cpuNanos);
+      $.put("allocated bytes", ¢.allocatedBytes);
+      $.put("canTip histogram", csvHistogram(¢.canTipHistogram));
+      $.put("tip histogram", csvHistogram(¢.tipHistogram));
+      $.nl();
+    }
+    return $.close();
+  }
+
+  /** @return the current {@link #snapshot()} as a JSON array of objects */
+  public String json() {
+    final StringBuilder $ = new StringBuilder("[");
+    for (final Entry ¢ : snapshot())
+      $.append($.length() == 1 ? "\n" : ",\n") //
+          .append("  {\"tipper\":\"").append(¢.tipper.getName()) //
+          .append("\",\"canTipCalls\":").append(¢.canTipCalls) //
+          .append(",\"canTipTrue\":").append(¢.canTipTrue) //
+          .append(",\"canTipNanos\":").append(¢.canTipNanos) //
+          .append(",\"tipCalls\":").append(¢.tipCalls) //
+          .append(",\"tipNanos\":").append(¢.tipNanos) //
+          .append(",\"applied\":").append(¢.applied) //
+          .append(",\"goNanos\":").append(¢.goNanos) //
+          .append(",\"cpuNanos\":").append(¢.cpuNanos) //
+          .append(",\"allocatedBytes\":").append(¢.allocatedBytes) //
+          .append(",\"canTipHistogram\":").append(jsonHistogram(¢.canTipHistogram)) //
+          .append(",\"tipHistogram\":").append(jsonHistogram(¢.tipHistogram)) //
+          .append("}");
+    return $.append("\n]\n") + "";
+  }
+
+  /** Forget all counts */
+  public void reset() {
+    counters.clear();
+  }
+
+  /** @return statistics of every tipper class used so far, by decreasing
+   *         time spent in it */
+  public List<Entry> snapshot() {
+    final List<Entry> $ = new ArrayList<>();
+    for (final Map.Entry<Class<?>, Counters> ¢ : counters.entrySet())
+      $.add(new Entry(¢.getKey(), ¢.getValue()));
+    $.sort((e1, e2) -> Long.compare(e2.nanos(), e1.nanos()));
+    return $;
+  }
+
+  /** @param ¢ JD
+   * @return statistics of the class of the tipper, or
+   *         <code><b>null</b></code> if it was not used so far */
+  public Entry snapshot(final Class<?> ¢) {
+    final Counters $ = counters.get(¢);
+    return $ == null ? null : new Entry(¢, $);
+  }
+
+  /** Write the current {@link #snapshot()} in JSON
+   * @param fileName JD
+   * @throws IOException */
+  public void writeJson(final String fileName) throws IOException {
+    try (Writer ¢ = new FileWriter(fileName)) {
+      ¢.write(json());
+    }
+  }
+
+  <N extends ASTNode> boolean timedCanTip(final Tipper<N> t, final N n) {
+    final Counters c = of(t.getClass());
+    final long start = System.nanoTime(), cpu = cpu(), bytes = allocated();
+    final boolean $ = t.canTip(n);
+    add(c.canTip, start, cpu, bytes);
+    if ($)
+      c.canTipTrue.increment();
+    return $;
+  }
+
+  /** Account for a call which started at the given readings */
+  private void add(final Method m, final long start, final long cpu, final long bytes) {
+    m.add(System.nanoTime() - start);
+    if (!costs)
+      return;
+    m.cpuNanos.add(cpu() - cpu);
+    m.allocatedBytes.add(allocated() - bytes);
+  }
+
+  /** @return bytes allocated so far by the current thread, or zero if costs
+   *         are not accounted for, or the JVM does not tell */
+  private long allocated() {
+    return !costs || !(threads instanceof com.sun.management.ThreadMXBean) ? 0
+        : ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /** @return CPU time of the current thread, or zero if costs are not
+   *         accounted for */
+  private long cpu() {
+    return !costs ? 0 : Math.max(0, threads.getCurrentThreadCpuTime());
+  }
+
+  private Counters of(final Class<?> ¢) {
+    final Counters $ = counters.get(¢);
+    return $ != null ? $ : counters.computeIfAbsent(¢, __ -> new Counters());
+  }
+}
@@ -1,6 +1,7 @@
 package il.org.spartan.spartanizer.dispatch;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
 import org.eclipse.jdt.core.dom.*;
@@ -18,6 +19,11 @@ import il.org.spartan.spartanizer.utils.*;
 /** Singleton containing all {@link Tipper}s which are active, allowing
  * selecting and applying the most appropriate such object for a given
  * {@link ASTNode}.
+ * <p>
+ * The default instance is an immutable snapshot, made once for each
+ * configuration of enabled {@link TipperGroup}s, and shared by all threads.
+ * It is replaced only after {@link #refresh()} reports a change of
+ * preferences.
  * @author Yossi Gil
  * @since 2015-08-22 */
 public class Toolbox {
@@ -41,8 +47,12 @@ public class Toolbox {
         }
     }
   };
-  /** The default Instance of this class */
-  static Toolbox defaultInstance;
+  /** The default Instance of this class; <code><b>null</b></code> if
+   * preferences changed since it was taken */
+  static volatile Toolbox defaultInstance;
+  /** Immutable snapshots of all tippers, by the enabled {@link TipperGroup}s
+   * they were made for */
+  private static final Map<Set<TipperGroup>, Toolbox> snapshots = new ConcurrentHashMap<>();
 
   /** Generate an {@link ASTRewrite} that contains the changes proposed by the
    * first tipper that applies to a node in the usual scan.
@@ -83,8 +93,19 @@ public class Toolbox {
     }
   }
 
+  /** @return an immutable snapshot of all tippers enabled by the current
+   *         preferences */
   public static Toolbox defaultInstance() {
-    return defaultInstance = defaultInstance != null ? defaultInstance : freshCopyOfAllTippers();
+    final Toolbox $ = defaultInstance;
+    return $ != null ? $ : (defaultInstance = snapshots.computeIfAbsent(enabledGroups(), __ -> freshCopyOfAllTippers().freeze()));
+  }
+
+  static Set<TipperGroup> enabledGroups() {
+    final Set<TipperGroup> $ = EnumSet.noneOf(TipperGroup.class);
+    for (final TipperGroup ¢ : TipperGroup.values())
+      if (¢.isEnabled())
+        $.add(¢);
+    return $;
   }
 
   public static Toolbox muttableDefaultInstance() {
@@ -273,12 +294,15 @@ public class Toolbox {
     return emptyToolboox().add(clazz, ns);
   }
 
+  /** Notify this class that preferences may have changed; the next call to
+   * {@link #defaultInstance()} would take a snapshot for the new
+   * configuration, unless one exists already */
   public static void refresh() {
-    defaultInstance = freshCopyOfAllTippers();
+    defaultInstance = null;
   }
 
   public static void refresh(final Trimmer ¢) {
-    ¢.toolbox = freshCopyOfAllTippers();
+    ¢.toolbox = Session.current().toolbox();
   }
 
   private static void disable(final Class<? extends TipperCategory> c, final List<Tipper<? extends ASTNode>> ns) {
@@ -292,16 +316,15 @@ public class Toolbox {
     }
   }
 
-  @SuppressWarnings("unchecked") private static <N extends ASTNode> Tipper<N> firstTipper(final N n, final List<Tipper<?>> ts) {
-    for (final Tipper<?> ¢ : ts)
-      if (((Tipper<N>) ¢).canTip(n))
-        return (Tipper<N>) ¢;
-    return null;
-  }
-
   /** Implementation */
   @SuppressWarnings("unchecked") private final List<Tipper<? extends ASTNode>>[] implementation = //
       (List<Tipper<? extends ASTNode>>[]) new List<?>[2 * ASTNode.TYPE_METHOD_REFERENCE];
+  /** Dispatch tables compiled from {@link #implementation}, by node type;
+   * <code><b>null</b></code> entries are compiled on demand */
+  private final DispatchTable[] tables = new DispatchTable[implementation.length];
+  /** Number of calls to {@link Tipper#canTip(ASTNode)} saved by guards */
+  private final LongAdder canTipCallsAvoided = new LongAdder();
+  private boolean frozen;
 
   public Toolbox() {
     // Nothing to do
@@ -313,6 +336,7 @@ public class Toolbox {
    * @param ns JD
    * @return <code><b>this</b></code>, for easy chaining. */
   @SafeVarargs public final <N extends ASTNode> Toolbox add(final Class<N> n, final Tipper<N>... ns) {
+    assert !frozen : "Cannot add tippers to a snapshot; use muttableDefaultInstance()";
     final Integer nodeType = classToNodeType.get(n);
     assert nodeType != null : fault.dump() + //
         "\n c = " + n + //
@@ -321,6 +345,7 @@ public class Toolbox {
         "\n classForNodeType = " + classToNodeType + //
         fault.done();
     final List<Tipper<? extends ASTNode>> ts = get(nodeType.intValue());
+    tables[nodeType.intValue()] = null;
     for (final Tipper<N> ¢ : ns) {
       if (¢ == null)
         break;
@@ -332,9 +357,11 @@ public class Toolbox {
   }
 
   public void disable(final Class<? extends TipperCategory> c) {
+    assert !frozen : "Cannot disable tippers of a snapshot; use muttableDefaultInstance()";
     for (final List<Tipper<? extends ASTNode>> ¢ : implementation)
       if (¢ != null)
         disable(c, ¢);
+    Arrays.fill(tables, null);
   }
 
   /** Find the first {@link Tipper} appropriate for an {@link ASTNode}
@@ -342,11 +369,39 @@ public class Toolbox {
    * @return first {@link Tipper} for which the parameter is within scope, or
    *         <code><b>null</b></code> if no such {@link Tipper} is found. @ */
   public <N extends ASTNode> Tipper<N> firstTipper(final N ¢) {
-    return firstTipper(¢, get(¢));
+    final int nodeType = ¢.getNodeType();
+    if (tables[nodeType] == null)
+      tables[nodeType] = new DispatchTable(get(nodeType));
+    return tables[nodeType].firstTipper(¢, canTipCallsAvoided, Session.current().statistics());
+  }
+
+  /** @return how many calls to {@link Tipper#canTip(ASTNode)} were saved so
+   *         far by the guards of tippers, see {@link Tipper#guard()} */
+  public long canTipCallsAvoided() {
+    return canTipCallsAvoided.sum();
   }
 
   public List<Tipper<? extends ASTNode>> get(final int ¢) {
-    return implementation[¢] = implementation[¢] == null ? new ArrayList<>() : implementation[¢];
+    if (!frozen)
+      tables[¢] = null;
+    return implementation[¢] != null ? implementation[¢] : (implementation[¢] = new ArrayList<>());
+  }
+
+  /** @return <code><b>true</b></code> <em>iff</em> this instance is a snapshot
+   *         which must not be changed */
+  public boolean frozen() {
+    return frozen;
+  }
+
+  /** Make this instance immutable, so that it could be shared by threads
+   * @return <code><b>this</b></code> */
+  Toolbox freeze() {
+    for (int ¢ = 0; ¢ < implementation.length; ++¢) {
+      implementation[¢] = implementation[¢] == null ? Collections.emptyList() : Collections.unmodifiableList(implementation[¢]);
+      tables[¢] = new DispatchTable(implementation[¢]);
+    }
+    frozen = true;
+    return this;
   }
 
   public int hooksCount() {
@@ -356,6 +411,18 @@ public class Toolbox {
     return $;
   }
 
+  /** @return a 64 bit hash of the classes of the tippers of this instance, by
+   *         node type and order, which tells whether results found with
+   *         another instance still hold */
+  public long signature() {
+    long $ = 0xcbf29ce484222325L;
+    for (int i = 0; i < implementation.length; ++i)
+      if (implementation[i] != null)
+        for (final Tipper<?> ¢ : implementation[i])
+          $ = (($ ^ i) * 0x100000001b3L ^ ¢.getClass().getName().hashCode()) * 0x100000001b3L;
+    return $;
+  }
+
   public int tippersCount() {
     int $ = 0;
     for (final List<?> ¢ : implementation)
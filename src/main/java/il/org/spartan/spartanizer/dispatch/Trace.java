@@ -0,0 +1,222 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.tipping.*;
+
+/** A bounded trace of the events of the engine in a {@link Session}: visits of
+ * nodes, tips made and tips applied. Each event is packed into three
+ * <code><b>long</b></code>s of a ring buffer, which keeps the latest
+ * {@link #capacity()} events; recording an event takes no lock and allocates
+ * nothing. Since the threads of a session share its trace, each event records
+ * its thread, and the {@link AST} of its node, i.e., the unit it is in.
+ * <p>
+ * A session traces only after {@link Session#startTrace(int)}; until then,
+ * {@link Session#trace()} is <code><b>null</b></code>, and the engine, which
+ * reads it once per pass, skips recording altogether. The events should be
+ * read, by {@link #events()} or by the exporters, after the traced run is
+ * over.
+ * @since 2016 */
+public final class Trace {
+  /** Kind of an event */
+  public enum Kind {
+    /** A node was visited */
+    VISIT,
+    /** A tipper made a tip for a node */
+    TIP,
+    /** A tip was applied */
+    APPLY
+  }
+
+  /** A single event, unpacked */
+  public static final class Event {
+    public final Kind kind;
+    /** As by {@link ASTNode#getNodeType()} */
+    public final int nodeType;
+    /** Of the node in its compilation unit */
+    public final int offset;
+    /** Class of the tipper; <code><b>null</b></code> for visits */
+    public final Class<?> tipper;
+    /** As by {@link System#nanoTime()} */
+    public final long nanos;
+    /** Id of the thread which recorded the event, as by
+     * {@link Thread#getId()} */
+    public final long thread;
+    /** Identity hash of the {@link AST} of the node, which tells apart the
+     * units, and the rounds, traced at once */
+    public final int unit;
+
+    Event(final Kind kind, final int nodeType, final int offset, final Class<?> tipper, final long nanos, final long thread, final int unit) {
+      this.kind = kind;
+      this.nodeType = nodeType;
+      this.offset = offset;
+      this.tipper = tipper;
+      this.nanos = nanos;
+      this.thread = thread;
+      this.unit = unit;
+    }
+
+    @Override public String toString() {
+      return kind + " " + ASTNode.nodeClassForType(nodeType).getSimpleName() + "@" + offset + (tipper == null ? "" : " " + tipper.getSimpleName());
+    }
+  }
+
+  private static final Kind[] kinds = Kind.values();
+
+  /** @param k JD
+   * @param n JD
+   * @param tipper JD
+   * @return an event packed into a <code><b>long</b></code>: 2 bits of kind,
+   *         8 of node type, 22 of tipper id, and 32 of offset */
+  static long pack(final Kind k, final ASTNode n, final int tipper) {
+    return (long) k.ordinal() << 62 | (long) n.getNodeType() << 54 | (long) tipper << 32 | n.getStartPosition() & 0xFFFFFFFFL;
+  }
+
+  /** Events in triples of a packed event, its time, and its thread and unit */
+  private final long[] events;
+  private final int mask;
+  /** Number of events recorded so far */
+  private final AtomicLong cursor = new AtomicLong();
+  /** Tippers by their id, which is one more than their index */
+  private final List<Class<?>> tippers = new CopyOnWriteArrayList<>();
+  private final Map<Class<?>, Integer> ids = new ConcurrentHashMap<>();
+
+  /** @param capacity maximal number of events kept; rounded up to a power of
+   *        two */
+  public Trace(final int capacity) {
+    final int $ = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    events = new long[3 * $];
+    mask = $ - 1;
+  }
+
+  /** Record the application of a tip
+   * @param t the tipper which made the tip
+   * @param n the node for which it was made */
+  public void application(final Tipper<?> t, final ASTNode n) {
+    record(pack(Kind.APPLY, n, id(t)), n);
+  }
+
+  /** @return how many events are kept */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /** Forget all events */
+  public void clear() {
+    cursor.set(0);
+  }
+
+  /** Write the events kept as CSV, one event per line
+   * @param w JD
+   * @throws IOException */
+  public void csv(final Writer w) throws IOException {
+    w.write("kind,nanos,thread,unit,node,offset,tipper\n");
+    for (final Event ¢ : events())
+      w.write(¢.kind + "," + ¢.nanos + "," + ¢.thread + "," + Integer.toHexString(¢.unit) + "," + ASTNode.nodeClassForType(¢.nodeType).getSimpleName() + ","
+          + ¢.offset + "," + (¢.tipper == null ? "" : ¢.tipper.getName()) + "\n");
+  }
+
+  /** @return how many events were lost since the buffer wrapped around */
+  public long dropped() {
+    return Math.max(0, cursor.get() - capacity());
+  }
+
+  /** @return the events kept, oldest first */
+  public List<Event> events() {
+    final long end = cursor.get();
+    final List<Event> $ = new ArrayList<>();
+    for (long i = Math.max(0, end - capacity()); i < end; ++i) {
+      final int slot = 3 * (int) (i & mask);
+      final long e = events[slot];
+      final int tipper = (int) (e >>> 32 & 0x3FFFFF);
+      $.add(new Event(kinds[(int) (e >>> 62)], (int) (e >>> 54 & 0xFF), (int) e, tipper == 0 ? null : tippers.get(tipper - 1), events[slot + 1],
+          events[slot + 2] >>> 32, (int) events[slot + 2]));
+    }
+    return $;
+  }
+
+  /** Write the events kept in the Trace Event Format, which
+   * <code>chrome://tracing</code> and other trace viewers read: visits and
+   * applications are instants, and tips are spans from the visit of the node
+   * to the tip, by the same thread in the same unit. Events are shown on the
+   * track of their thread.
+   * @param w JD
+   * @throws IOException */
+  public void json(final Writer w) throws IOException {
+    final List<Event> es = events();
+    final long origin = es.isEmpty() ? 0 : es.get(0).nanos;
+    w.write("{\"traceEvents\":[");
+    final Map<Long, Event> visits = new HashMap<>();
+    String separator = "\n";
+    for (final Event ¢ : es) {
+      final String name = ¢.tipper == null ? ASTNode.nodeClassForType(¢.nodeType).getSimpleName() : ¢.tipper.getSimpleName();
+      final Event visit = visits.get(Long.valueOf(¢.thread));
+      final long start = ¢.kind == Kind.TIP && visit != null && visit.unit == ¢.unit && visit.offset == ¢.offset && visit.nodeType == ¢.nodeType ? visit.nanos
+          : ¢.nanos;
+      w.write(separator + "{\"name\":\"" + name + "\",\"cat\":\"" + ¢.kind + "\",\"ph\":\"" + (¢.kind == Kind.TIP ? "X" : "i") + "\",\"ts\":"
+          + micros(start - origin) + (¢.kind == Kind.TIP ? ",\"dur\":" + micros(¢.nanos - start) : ",\"s\":\"t\"") + ",\"pid\":1,\"tid\":" + ¢.thread
+          + ",\"args\":{\"unit\":\"" + Integer.toHexString(¢.unit) + "\",\"offset\":" + ¢.offset + "}}");
+      separator = ",\n";
+      if (¢.kind == Kind.VISIT)
+        visits.put(Long.valueOf(¢.thread), ¢);
+    }
+    w.write("\n]}\n");
+  }
+
+  /** Write the events kept to <code>fileName.csv</code>, by
+   * {@link #csv(Writer)}, and to <code>fileName.json</code>, by
+   * {@link #json(Writer)}
+   * @param fileName JD
+   * @throws IOException */
+  public void save(final String fileName) throws IOException {
+    try (Writer ¢ = new BufferedWriter(new FileWriter(fileName + ".csv"))) {
+      csv(¢);
+    }
+    try (Writer ¢ = new BufferedWriter(new FileWriter(fileName + ".json"))) {
+      json(¢);
+    }
+  }
+
+  /** Record a tip
+   * @param t the tipper which made it
+   * @param n the node for which it was made */
+  public void tip(final Tipper<?> t, final ASTNode n) {
+    record(pack(Kind.TIP, n, id(t)), n);
+  }
+
+  /** Record a visit
+   * @param ¢ the visited node */
+  public void visitation(final ASTNode ¢) {
+    record(pack(Kind.VISIT, ¢, 0), ¢);
+  }
+
+  private int id(final Tipper<?> ¢) {
+    final Integer $ = ids.get(¢.getClass());
+    return $ != null ? $.intValue() : register(¢.getClass());
+  }
+
+  private static String micros(final long nanos) {
+    return String.format(Locale.ROOT, "%.3f", Double.valueOf(nanos / 1E3));
+  }
+
+  private synchronized int register(final Class<?> c) {
+    final Integer $ = ids.get(c);
+    if ($ != null)
+      return $.intValue();
+    tippers.add(c);
+    ids.put(c, Integer.valueOf(tippers.size()));
+    return tippers.size();
+  }
+
+  private void record(final long event, final ASTNode n) {
+    final int slot = 3 * (int) (cursor.getAndIncrement() & mask);
+    events[slot] = event;
+    events[slot + 1] = System.nanoTime();
+    events[slot + 2] = Thread.currentThread().getId() << 32 | System.identityHashCode(n.getAST()) & 0xFFFFFFFFL;
+  }
+}
@@ -27,10 +27,13 @@ public class Trimmer extends AbstractGUIApplicator {
   }
 
   public Toolbox toolbox;
+  /** Accounts for the tips applied by the last call of
+   * {@link #consolidateTips(ASTRewrite, CompilationUnit, IMarker, AtomicInteger)} */
+  private Budget last = new Budget();
 
-  /** Instantiates this class */
+  /** Instantiates this class, with the tippers of the current {@link Session} */
   public Trimmer() {
-    this(Toolbox.defaultInstance());
+    this(Session.current().toolbox());
   }
 
   public Trimmer(final Toolbox toolbox) {
@@ -39,10 +42,40 @@ public class Trimmer extends AbstractGUIApplicator {
   }
 
   @Override public void consolidateTips(final ASTRewrite r, final CompilationUnit u, final IMarker m, final AtomicInteger i) {
+    last = new Budget();
+    consolidateTips(r, u, m, i, null, last, null);
+  }
+
+  /** @return classes of the tippers whose tips were applied by the last
+   *         rewrite this trimmer created */
+  public Set<Class<?>> firing() {
+    return last.firing();
+  }
+
+  /** @param d members which need not be visited, and where to record the
+   *        members in which tips were found; may be <code><b>null</b></code>,
+   *        in which case all of the compilation unit is visited
+   * @param b where applied tips are accounted for; once it is exhausted, no
+   *        more nodes are visited; may be <code><b>null</b></code>
+   * @param schedule where to collect the tips found, to apply only those it
+   *        chooses; may be <code><b>null</b></code>, in which case each tip
+   *        is applied as it is found, and excludes the nodes its tipper
+   *        excluded from the rest of the visit */
+  void consolidateTips(final ASTRewrite r, final CompilationUnit u, final IMarker m, final AtomicInteger i, final DirtyRegions d, final Budget b,
+      final TipScheduler schedule) {
+    final Trace trace = Session.current().trace();
+    final boolean log = TrimmerLog.on();
     u.accept(new DispatchingVisitor() {
+      @Override public boolean preVisit2(final ASTNode ¢) {
+        return super.preVisit2(¢) && (d == null || !d.skip(¢)) && (b == null || !b.exhausting());
+      }
+
       @Override protected <N extends ASTNode> boolean go(final N n) {
         progressMonitor.worked(1);
-        TrimmerLog.visitation(n);
+        if (trace != null)
+          trace.visitation(n);
+        if (log)
+          TrimmerLog.visitation(n);
         if (!check(n) || !inRange(m, n) || disabling.on(n))
           return true;
         Tipper<N> w = null;
@@ -54,20 +87,27 @@ public class Trimmer extends AbstractGUIApplicator {
         if (w == null)
           return true;
         Tip s = null;
+        final ExclusionManager x = schedule == null ? exclude : new ExclusionManager();
         try {
-          s = w.tip(n, exclude);
-          TrimmerLog.tip(w, n);
+          s = TipperStatistics.tip(w, n, x);
+          if (trace != null)
+            trace.tip(w, n);
+          if (log)
+            TrimmerLog.tip(w, n);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
-        } catch (final Exception x) {
-          monitor.debug(this, x);
-        }
-        if (s != null) {
-          i.incrementAndGet();
-          if (LogManager.isActive())
-            LogManager.getLogWriter().printRow(u.getJavaElement().getElementName(), s.description, s.lineNumber + "");
-          TrimmerLog.application(r, s);
+        } catch (final Exception ¢) {
+          monitor.debug(this, ¢);
         }
+        if (s == null)
+          return true;
+        if (d != null)
+          d.tipped(n);
+        DefUseIndex.forget(n);
+        if (schedule != null)
+          schedule.add(s, w, n, x.inner);
+        else
+          apply(r, u, i, b, trace, w, n, s);
         return true;
       }
 
@@ -75,21 +115,108 @@ public class Trimmer extends AbstractGUIApplicator {
         disabling.scan(¢);
       }
     });
+    if (schedule != null)
+      for (final TipScheduler.Candidate ¢ : schedule.schedule()) {
+        if (b != null && b.exhausting())
+          return;
+        apply(r, u, i, b, trace, ¢.tipper, ¢.node, ¢.tip);
+      }
+  }
+
+  private static void apply(final ASTRewrite r, final CompilationUnit u, final AtomicInteger i, final Budget b, final Trace t, final Tipper<?> w,
+      final ASTNode n, final Tip s) {
+    i.incrementAndGet();
+    TipperStatistics.applied(w);
+    if (b != null)
+      b.tipped(w);
+    if (t != null)
+      t.application(w, n);
+    if (LogManager.isActive())
+      LogManager.getLogWriter().printRow(u.getJavaElement() == null ? "" : u.getJavaElement().getElementName(), s.description, s.lineNumber + "");
+    if (TrimmerLog.on())
+      TrimmerLog.application(r, s);
+    else
+      TipperStatistics.go(s, r, null);
   }
 
+  /** Apply trimming repeatedly, until no more changes. Each round after the
+   * first visits only the members that the previous round changed or found
+   * tips in; see {@link DirtyRegions}. Each round applies as many independent
+   * tips as it can; see {@link TipScheduler}.
+   * @param from what to process
+   * @return trimmed text */
   public String fixed(final String from) {
+    return fixed(from, new AtomicInteger());
+  }
+
+  /** @param from what to process
+   * @param rounds incremented by the number of rounds made
+   * @return trimmed text, as computed by {@link #fixed(String)} */
+  public String fixed(final String from, final AtomicInteger rounds) {
+    final Budget $ = new Budget();
+    try {
+      return fixed(from, $);
+    } finally {
+      rounds.addAndGet($.rounds());
+    }
+  }
+
+  /** @param from what to process
+   * @param b limits of the work on the text, and where it is accounted for
+   * @return trimmed text, as computed by {@link #fixed(String)}, or, if the
+   *         budget was exhausted, as trimmed until then, and then by the
+   *         fallback tippers of the budget; if the text returns to an earlier
+   *         state, trimming stops there, see {@link Oscillation}. If the
+   *         current {@link Session} has a {@link MemberCache}, members found
+   *         in it are spliced in, and are not tipped again; see
+   *         {@link MemberSplice} */
+  public String fixed(final String from, final Budget b) {
+    final MemberCache c = Session.current().cache();
+    if (c == null)
+      return fixed(from, b, null);
+    final MemberSplice s = new MemberSplice(c, toolbox.signature(), from);
+    return fixed(s.text, b, s);
+  }
+
+  /** @param s members spliced from a cache, and where to record the members
+   *        of the text once at fixed point; may be <code><b>null</b></code> */
+  private String fixed(final String from, final Budget b, final MemberSplice s) {
+    final DirtyRegions d = new DirtyRegions();
+    if (s != null)
+      d.trust(s.spliced, s.shell());
+    final Oscillation o = new Oscillation();
+    o.repeats(from, Collections.emptySet());
     for (final Document $ = new Document(from);;) {
+      if (!b.round()) {
+        monitor.debug("Trimming stopped: " + b);
+        final Budget fallback = b.fallingBack();
+        return fallback == null ? $.get() : new Trimmer(b.fallbackToolbox()).fixed($.get(), fallback);
+      }
       final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from($.get());
-      final ASTRewrite r = createRewrite(u);
+      d.begin(u, $.get());
+      final ASTRewrite r = ASTRewrite.create(u.getAST());
+      final TipScheduler t = new TipScheduler();
+      consolidateTips(r, u, null, new AtomicInteger(0), d, b, t);
+      if (s != null)
+        s.applied(u, t.scheduled());
       final TextEdit e = r.rewriteAST($, null);
+      NodeTable.discard(u.getAST());
       try {
         e.apply($);
       } catch (final MalformedTreeException | IllegalArgumentException | BadLocationException x) {
         monitor.logEvaluationError(this, x);
         throw new AssertionError(x);
       }
-      if (!e.hasChildren())
+      if (d.end(e.hasChildren())) {
+        if (s != null)
+          s.record($.get());
         return $.get();
+      }
+      if (e.hasChildren() && o.repeats($.get(), b.firing())) {
+        b.cycle(o);
+        monitor.debug("Trimming stopped: " + b);
+        return $.get();
+      }
     }
   }
 
@@ -109,7 +236,7 @@ public class Trimmer extends AbstractGUIApplicator {
         if (w != null)
           progressMonitor.worked(5);
         try {
-          return w == null || w.cantTip(n) || prune(w.tip(n, exclude), $);
+          return w == null || !TipperStatistics.canTip(w, n) || prune(TipperStatistics.tip(w, n, exclude), $);
         } catch (final TipperFailure f) {
           monitor.debug(this, f);
         } catch (final Exception x) {
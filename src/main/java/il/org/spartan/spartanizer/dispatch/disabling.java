@@ -1,28 +1,24 @@
 package il.org.spartan.spartanizer.dispatch;
 
-import org.eclipse.jdt.core.dom.*;
+import java.util.*;
 
-import il.org.spartan.spartanizer.ast.navigate.*;
-import il.org.spartan.spartanizer.ast.safety.*;
+import org.eclipse.jdt.core.dom.*;
 
 /** @author Yossi Gil
  * @since 2016 */
 public interface disabling {
-  /** A recursive scan for disabled nodes. Adds disabled property to disabled
-   * nodes and their sub trees.
+  /** Find the disabled nodes of the {@link AST} of a node. The scan is made
+   * once for each {@link AST} of a compilation unit, and is shared by all
+   * applicators visiting it; nodes of other trees are checked each by itself.
    * <p>
    * Algorithm:
    * <ol>
-   * <li>Visit all nodes that contain an annotation.
-   * <li>If a node has a disabler, disable all nodes below it using
-   * {@link hop#descendants(ASTNode)}
-   * <li>Disabling is done by setting a node property, and is carried out
-   * <li>If a node which was previously disabled contains an enabler, enable all
-   * all its descendants.
-   * <li>If a node which was previously enabled, contains a disabler, disable
-   * all nodes below it, and carry on.
-   * <li>Obviously, the visit needs to be pre-order, i.e., visiting the parent
-   * before the children.
+   * <li>Scan the comment list of the compilation unit for Javadoc comments of
+   * body declarations which contain a disabler or an enabler.
+   * <li>Record the source ranges of these body declarations, and how they nest.
+   * <li>A node is disabled if the innermost such body declaration including it
+   * contains a disabler; an enabler in a body declaration nested in a disabled
+   * one enables all its descendants, unless disabled again further down.
    * </ol>
    * The disabling information is used later by the tip/fixing mechanisms, which
    * should know little about this class.
@@ -30,26 +26,10 @@ public interface disabling {
    * @author Ori Roth
    * @since 2016/05/13 */
   static void scan(final ASTNode n) {
-    n.accept(new DispatchingVisitor() {
-      @Override public boolean visit(final Initializer ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override public boolean visit(final EnumConstantDeclaration ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override protected <N extends ASTNode> boolean go(final N ¢) {
-        final BodyDeclaration ¢2 = az.bodyDeclaration(¢);
-        if (!disabling.isDisabledByIdentifier(¢2))
-          return true;
-        disabling.disable(¢2);
-        return false;
-      }
-    });
+    if (n.getRoot() instanceof CompilationUnit)
+      DisabledRegions.of(n);
   }
 
-  String disabledPropertyId = "Trimmer_disabled_id";
   /** Disable laconic tips, used to indicate that no spartanization should be
    * made to node */
   String disablers[] = { "[[SuppressWarningsSpartan]]", //
@@ -58,35 +38,11 @@ public interface disabling {
   String enablers[] = { "[[EnableWarningsSpartan]]", //
   };
 
-  /** The recursive disabling process. Returns to {@link disabledScan} upon
-   * reaching an enabler.
-   * @param d disabled {@link BodyDeclaration} */
-  static void disable(final BodyDeclaration d) {
-    d.accept(new DispatchingVisitor() {
-      @Override public boolean visit(final Initializer ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override public boolean visit(final EnumConstantDeclaration ¢) {
-        return cautiousGo(¢);
-      }
-
-      @Override protected <N extends ASTNode> boolean go(final N ¢) {
-        if (¢ instanceof BodyDeclaration && disabling.isEnabledByIdentifier((BodyDeclaration) ¢)) {
-          scan(¢);
-          return false;
-        }
-        NodeData.set(¢, disabledPropertyId);
-        return true;
-      }
-    });
-  }
-
   /** @param n an {@link ASTNode}
    * @return <code><b>true</b></code> <em>iff</em> the node is spartanization
    *         disabled */
   static boolean on(final ASTNode ¢) {
-    return NodeData.has(¢, disabledPropertyId);
+    return DisabledRegions.on(¢);
   }
 
   static boolean isDisabledByIdentifier(final BodyDeclaration ¢) {
@@ -98,7 +54,20 @@ public interface disabling {
   }
 
   static boolean hasJavaDocIdentifier(final BodyDeclaration d, final String[] ids) {
-    return d != null && d.getJavadoc() != null && contains(d.getJavadoc() + "", ids);
+    return d != null && d.getJavadoc() != null && contains(d.getJavadoc().tags(), ids);
+  }
+
+  /** Search the text of Javadoc tags, without flattening them
+   * @param tags a list of {@link TagElement}s, or of their fragments
+   * @param ids JD
+   * @return <code><b>true</b></code> <em>iff</em> the text of one of the tags
+   *         contains one of the identifiers */
+  static boolean contains(final List<?> tags, final String[] ids) {
+    for (final Object ¢ : tags)
+      if (¢ instanceof TextElement && contains(((TextElement) ¢).getText(), ids)
+          || ¢ instanceof TagElement && contains(((TagElement) ¢).fragments(), ids))
+        return true;
+    return false;
   }
 
   static boolean contains(final String s, final String[] ids) {
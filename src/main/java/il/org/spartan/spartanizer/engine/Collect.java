@@ -14,7 +14,8 @@ import il.org.spartan.spartanizer.ast.navigate.*;
 import il.org.spartan.spartanizer.ast.safety.*;
 
 /** A utility class for finding occurrences of an {@link Expression} in an
- * {@link ASTNode}.
+ * {@link ASTNode}. Searches which {@link DefUseIndex} shows to be fruitless
+ * are not carried out.
  * @author Boris van Sosin <boris.van.sosin @ gmail.com>
  * @author Yossi Gil <yossi.gil @ gmail.com> (major refactoring 2013/07/10)
  * @since 2013/07/01 */
@@ -56,6 +57,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (!DefUseIndex.mayBeDefinedIn(name, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(declarationsCollector($, name));
         return $;
@@ -68,6 +71,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (!DefUseIndex.mayBeDefinedIn(name, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(definitionsCollector($, name));
         return $;
@@ -83,6 +88,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (!DefUseIndex.mayOccurIn(name, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(new UsesCollectorIgnoreDefinitions($, name));
         return $;
@@ -98,6 +105,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (!DefUseIndex.mayOccurIn(name, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           ¢.accept(new UnsafeUsesCollector($, name));
         return $;
@@ -115,6 +124,8 @@ public enum Collect {
     return new Collector(n) {
       @Override public List<SimpleName> in(final ASTNode... ns) {
         final List<SimpleName> $ = new ArrayList<>();
+        if (!DefUseIndex.mayOccurIn(name, ns))
+          return $;
         for (final ASTNode ¢ : ns)
           if (¢ != null)
             ¢.accept(new UsesCollector($, name));
@@ -453,6 +464,8 @@ public enum Collect {
    * @return list of uses */
   final List<SimpleName> collect(final SimpleName what, final ASTNode... ns) {
     final List<SimpleName> $ = new ArrayList<>();
+    if (!DefUseIndex.mayOccurIn(what, ns))
+      return $;
     for (final ASTNode n : ns)
       for (final ASTVisitor ¢ : collectors(what, $))
         n.accept(¢);
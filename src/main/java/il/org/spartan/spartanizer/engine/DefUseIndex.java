@@ -0,0 +1,157 @@
+package il.org.spartan.spartanizer.engine;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** The source offsets of the occurrences of each identifier in a
+ * {@link MethodDeclaration}, split into definitions, i.e., declarations,
+ * assignments and increments, and all occurrences. The index of a method is
+ * built by a single walk, on the first query about it, and kept in the
+ * {@link NodeTable} of its {@link AST} until {@link #forget(ASTNode)}.
+ * <p>
+ * Bindings are not resolved here, so occurrences are keyed by identifier,
+ * which is how {@link Collect} matches names. Since whatever {@link Collect}
+ * finds is an occurrence of the identifier inside the nodes searched, the
+ * index answers, without a walk, all queries whose answer is empty.
+ * @since 2016 */
+public final class DefUseIndex {
+  private static final NodeTable.Slot<DefUseIndex> slot = new NodeTable.Slot<>("def-use index");
+  private static final int[] none = {};
+
+  /** @param ¢ JD
+   * @return <code><b>true</b></code> <em>iff</em> the parameter is a
+   *         definition of the identifier it holds */
+  private static boolean definition(final SimpleName ¢) {
+    final StructuralPropertyDescriptor $ = ¢.getLocationInParent();
+    return $ == VariableDeclarationFragment.NAME_PROPERTY || $ == Assignment.LEFT_HAND_SIDE_PROPERTY || $ == PostfixExpression.OPERAND_PROPERTY
+        || $ == PrefixExpression.OPERAND_PROPERTY && incrementOrDecrement(((PrefixExpression) ¢.getParent()).getOperator());
+  }
+
+  /** Drop the index of the method containing a node, e.g., once a tip was
+   * applied to it
+   * @param ¢ JD */
+  public static void forget(final ASTNode ¢) {
+    final MethodDeclaration $ = method(¢);
+    if ($ != null)
+      NodeTable.of($).unset(slot, $);
+  }
+
+  /** @param n JD
+   * @param ns JD
+   * @return <code><b>true</b></code> <em>iff</em> the identifier of the first
+   *         parameter may be defined in the nodes of the second parameter */
+  static boolean mayBeDefinedIn(final SimpleName n, final ASTNode... ns) {
+    return mayOccurIn(true, n, ns);
+  }
+
+  /** @param n JD
+   * @param ns JD
+   * @return <code><b>true</b></code> <em>iff</em> the identifier of the first
+   *         parameter may occur in the nodes of the second parameter */
+  static boolean mayOccurIn(final SimpleName n, final ASTNode... ns) {
+    return mayOccurIn(false, n, ns);
+  }
+
+  /** @param ¢ JD
+   * @return the index of the outermost method containing the parameter, or
+   *         <code><b>null</b></code> if there is no such method */
+  static DefUseIndex of(final ASTNode ¢) {
+    final MethodDeclaration m = method(¢);
+    if (m == null)
+      return null;
+    final NodeTable t = NodeTable.of(m);
+    final DefUseIndex $ = t.get(slot, m);
+    return $ != null ? $ : t.set(slot, m, new DefUseIndex(m));
+  }
+
+  private static boolean incrementOrDecrement(final PrefixExpression.Operator ¢) {
+    return ¢ == PrefixExpression.Operator.INCREMENT || ¢ == PrefixExpression.Operator.DECREMENT;
+  }
+
+  /** Only methods of a parsed compilation unit are indexed; detached trees
+   * are typically copies which are still being edited */
+  private static MethodDeclaration method(final ASTNode n) {
+    MethodDeclaration $ = null;
+    for (ASTNode ¢ = n;; ¢ = ¢.getParent()) {
+      if (¢ instanceof MethodDeclaration)
+        $ = (MethodDeclaration) ¢;
+      if (¢.getParent() == null)
+        return ¢ instanceof CompilationUnit ? $ : null;
+    }
+  }
+
+  /** Nodes are answered for only if they all have a source range inside the
+   * same indexed method */
+  private static boolean mayOccurIn(final boolean definitions, final SimpleName n, final ASTNode... ns) {
+    if (n == null || ns.length == 0)
+      return true;
+    DefUseIndex $ = null;
+    for (final ASTNode ¢ : ns) {
+      if (¢ == null || ¢.getStartPosition() < 0)
+        return true;
+      final DefUseIndex i = of(¢);
+      if (i == null || $ != null && i != $)
+        return true;
+      $ = i;
+    }
+    final int[] offsets = (definitions ? $.definitions : $.occurrences).getOrDefault(n.getIdentifier(), none);
+    for (final ASTNode ¢ : ns)
+      if (includes(offsets, ¢))
+        return true;
+    return false;
+  }
+
+  private static boolean includes(final int[] offsets, final ASTNode n) {
+    final int $ = Arrays.binarySearch(offsets, n.getStartPosition());
+    final int i = $ >= 0 ? $ : -$ - 1;
+    return i < offsets.length && offsets[i] < n.getStartPosition() + n.getLength();
+  }
+
+  private static Map<String, int[]> sorted(final Map<String, List<Integer>> m) {
+    final Map<String, int[]> $ = new HashMap<>();
+    for (final Map.Entry<String, List<Integer>> e : m.entrySet()) {
+      final int[] offsets = new int[e.getValue().size()];
+      for (int ¢ = 0; ¢ < offsets.length; ++¢)
+        offsets[¢] = e.getValue().get(¢).intValue();
+      Arrays.sort(offsets);
+      $.put(e.getKey(), offsets);
+    }
+    return $;
+  }
+
+  /** Offsets of all occurrences, by identifier */
+  private final Map<String, int[]> occurrences;
+  /** Offsets of definitions, by identifier */
+  private final Map<String, int[]> definitions;
+
+  private DefUseIndex(final MethodDeclaration d) {
+    final Map<String, List<Integer>> os = new HashMap<>(), ds = new HashMap<>();
+    d.accept(new ASTVisitor() {
+      @Override public boolean visit(final SimpleName ¢) {
+        os.computeIfAbsent(¢.getIdentifier(), __ -> new ArrayList<>()).add(Integer.valueOf(¢.getStartPosition()));
+        if (definition(¢))
+          ds.computeIfAbsent(¢.getIdentifier(), __ -> new ArrayList<>()).add(Integer.valueOf(¢.getStartPosition()));
+        return false;
+      }
+    });
+    occurrences = sorted(os);
+    definitions = sorted(ds);
+  }
+
+  /** @param ¢ JD
+   * @return the source offsets of the definitions of the identifier in the
+   *         method indexed, in increasing order */
+  int[] definitions(final String ¢) {
+    return definitions.getOrDefault(¢, none).clone();
+  }
+
+  /** @param ¢ JD
+   * @return the source offsets of all occurrences of the identifier in the
+   *         method indexed, in increasing order */
+  int[] occurrences(final String ¢) {
+    return occurrences.getOrDefault(¢, none).clone();
+  }
+}
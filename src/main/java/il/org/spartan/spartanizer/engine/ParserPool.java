@@ -0,0 +1,103 @@
+package il.org.spartan.spartanizer.engine;
+
+import java.util.*;
+
+import org.eclipse.core.runtime.*;
+import org.eclipse.jdt.core.*;
+import org.eclipse.jdt.core.dom.*;
+
+/** The parsers, without bindings, of {@link Make} and {@link makeAST}.
+ * <p>
+ * Each thread keeps a parser of its own for the texts it parses, which JDT
+ * resets after each parse. The compiler options of the workspace are read
+ * once, and again only after a {@link #refresh()}. Compilation units known to the Java model are
+ * better parsed together, by {@link #parse(List, IProgressMonitor)}, in a
+ * batch of {@link ASTParser#createASTs} for each of their projects, with the
+ * compiler options of the project.
+ * @since 2016 */
+public final class ParserPool {
+  /** The parser of each thread */
+  private static final ThreadLocal<ASTParser> parsers = new ThreadLocal<>();
+  /** Compiler options of the workspace, or <code><b>null</b></code> if they
+   * are to be read again */
+  private static volatile Map<String, String> options;
+  /** Number of calls to {@link #refresh()} */
+  private static int refreshes;
+
+  /** Forget the compiler options, so that the next parse reads them again;
+   * called whenever the options of {@link JavaCore} change */
+  public static synchronized void refresh() {
+    options = null;
+    ++refreshes;
+  }
+
+  private static ASTParser configure(final ASTParser $, final int kind) {
+    $.setKind(kind);
+    $.setResolveBindings(false);
+    $.setCompilerOptions(options()); // copied by the parser
+    return $;
+  }
+
+  /** @return the compiler options of the workspace, as of the last
+   *         {@link #refresh()} */
+  static Map<String, String> options() {
+    final Map<String, String> $ = options;
+    if ($ != null)
+      return $;
+    final int r;
+    synchronized (ParserPool.class) {
+      r = refreshes;
+    }
+    final Map<String, String> fresh = JavaCore.getOptions();
+    fresh.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_8); // or newer
+    // version
+    final Map<String, String> unmodifiable = Collections.unmodifiableMap(fresh);
+    synchronized (ParserPool.class) {
+      if (r == refreshes)
+        options = unmodifiable; // unless the options changed while read
+    }
+    return unmodifiable;
+  }
+
+  /** @param kind one of the kinds of {@link ASTParser}, e.g.,
+   *        {@link ASTParser#K_COMPILATION_UNIT}
+   * @return a newly created parser of this kind, for a caller that keeps
+   *         it */
+  public static ASTParser parser(final int kind) {
+    return configure(ASTParser.newParser(ASTParser.K_COMPILATION_UNIT), kind);
+  }
+
+  /** Parse a text with the parser of the current thread
+   * @param kind one of the kinds of {@link ASTParser}
+   * @param text what to parse
+   * @return the node parsed */
+  public static ASTNode parse(final int kind, final char[] text) {
+    ASTParser $ = parsers.get();
+    if ($ == null)
+      parsers.set($ = ASTParser.newParser(ASTParser.K_COMPILATION_UNIT));
+    configure($, kind).setSource(text);
+    return $.createAST(null);
+  }
+
+  /** Parse compilation units in a single batch for each of their projects
+   * @param us JD
+   * @param m JD
+   * @return the compilation units parsed, by their descriptor */
+  public static Map<ICompilationUnit, CompilationUnit> parse(final List<ICompilationUnit> us, final IProgressMonitor m) {
+    final Map<IJavaProject, List<ICompilationUnit>> projects = new LinkedHashMap<>();
+    for (final ICompilationUnit ¢ : us)
+      projects.computeIfAbsent(¢.getJavaProject(), __ -> new ArrayList<>()).add(¢);
+    final Map<ICompilationUnit, CompilationUnit> $ = new HashMap<>();
+    for (final Map.Entry<IJavaProject, List<ICompilationUnit>> e : projects.entrySet()) {
+      final ASTParser p = parser(ASTParser.K_COMPILATION_UNIT);
+      if (e.getKey() != null)
+        p.setProject(e.getKey()); // and so, the compiler options of the project
+      p.createASTs(e.getValue().toArray(new ICompilationUnit[e.getValue().size()]), new String[0], new ASTRequestor() {
+        @Override public void acceptAST(final ICompilationUnit source, final CompilationUnit u) {
+          $.put(source, u);
+        }
+      }, m);
+    }
+    return $;
+  }
+}
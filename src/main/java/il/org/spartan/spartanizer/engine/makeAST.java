@@ -33,7 +33,7 @@ public enum makeAST {
     }
 
     @Override public CompilationUnit from(final String ¢) {
-      return (CompilationUnit) makeParser(¢).createAST(null);
+      return (CompilationUnit) super.from(¢);
     }
   },
   /** Converts file, string or marker to expression. */
@@ -51,7 +51,7 @@ public enum makeAST {
     }
 
     @Override public Expression from(final String ¢) {
-      return (Expression) makeParser(¢).createAST(null);
+      return (Expression) super.from(¢);
     }
   },
   /** Constant used in order to get the source as a sequence of sideEffects. */
@@ -139,7 +139,7 @@ public enum makeAST {
    * @param s String
    * @return ASTNode */
   public ASTNode from(final String ¢) {
-    return makeParser(¢).createAST(null);
+    return ParserPool.parse(kind, ¢.toCharArray());
   }
 
   /** Creates a no-binding parser for a given text
@@ -35,16 +35,18 @@ public interface type {
     return baptize(name, "anonymously born");
   }
 
-  static inner.implementation baptize(final String name, final String description) {
-    return have(name) ? bring(name) : new inner.implementation() {
-      @Override public String description() {
-        return description;
-      }
-
-      @Override public String key() {
-        return name;
-      }
-    }.join();
+  @SuppressWarnings("synthetic-access") static inner.implementation baptize(final String name, final String description) {
+    synchronized (inner.types) {
+      return have(name) ? bring(name) : new inner.implementation() {
+        @Override public String description() {
+          return description;
+        }
+
+        @Override public String key() {
+          return name;
+        }
+      }.join();
+    }
   }
 
   @SuppressWarnings("synthetic-access") static inner.implementation bring(final String name) {
@@ -186,12 +188,16 @@ public interface type {
   }
 
   static class inner {
-    private static String propertyName = "spartan type";
-    /** All type that were ever born , as well as all primitive types */
-    private static Map<String, implementation> types = new LinkedHashMap<>();
+    /** Inferred types of expressions, in their {@link NodeTable} */
+    private static final NodeTable.Slot<implementation> inferred = new NodeTable.Slot<>("spartan type");
+    /** All type that were ever born , as well as all primitive types; may be
+     * added to concurrently by several spartanization threads */
+    private static Map<String, implementation> types = Collections.synchronizedMap(new LinkedHashMap<>());
 
     private static implementation get(final Expression ¢) {
-      return (implementation) (NodeData.has(¢, propertyName) ? NodeData.get(¢, propertyName) : NodeData.set(¢, propertyName, lookUp(¢, lookDown(¢))));
+      final NodeTable t = NodeTable.of(¢);
+      final implementation $ = t.get(inferred, ¢);
+      return $ != null ? $ : t.set(inferred, ¢, lookUp(¢, lookDown(¢)));
     }
 
     private static boolean isCastedToShort(final implementation i1, final implementation i2, final Expression x) {
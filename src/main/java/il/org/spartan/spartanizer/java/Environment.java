@@ -143,15 +143,9 @@ import il.org.spartan.spartanizer.utils.*;
   final Environment EMPTY = new Environment() {
     // This class is intentionally empty
   };
-  /** Initializer for EMPTY */
-  final LinkedHashSet<Entry<String, Information>> emptyEntries = new LinkedHashSet<>();
-  /** Initializer for EMPTY */
-  final LinkedHashSet<String> emptySet = new LinkedHashSet<>();
-  // Holds the declarations in the subtree and relevant siblings.
-  final LinkedHashSet<Entry<String, Information>> upEnv = new LinkedHashSet<>();
 
-  static Information createInformation(final VariableDeclarationFragment ¢, final type t) {
-    return new Information(¢.getParent(), getHidden(fullName(¢.getName())), ¢, t);
+  static Information createInformation(final VariableDeclarationFragment ¢, final type t, final Set<Entry<String, Information>> up) {
+    return new Information(¢.getParent(), getHidden(up, fullName(¢.getName())), ¢, t);
   }
 
   /** @param ¢ JD
@@ -159,11 +153,11 @@ import il.org.spartan.spartanizer.utils.*;
    *         contained ({@link Block}s. If the {@link Statement} is a
    *         {@link Block}, (also IfStatement, ForStatement and so on...) return
    *         empty Collection. */
-  static List<Entry<String, Information>> declarationsOf(final Statement ¢) {
+  static List<Entry<String, Information>> declarationsOf(final Statement ¢, final Set<Entry<String, Information>> up) {
     final List<Entry<String, Information>> $ = new ArrayList<>();
     switch (¢.getNodeType()) {
       case VARIABLE_DECLARATION_STATEMENT:
-        $.addAll(declarationsOf(az.variableDeclrationStatement(¢)));
+        $.addAll(declarationsOf(az.variableDeclrationStatement(¢), up));
         break;
       default:
         return $;
@@ -171,12 +165,12 @@ import il.org.spartan.spartanizer.utils.*;
     return $;
   }
 
-  static List<Entry<String, Information>> declarationsOf(final VariableDeclarationStatement s) {
+  static List<Entry<String, Information>> declarationsOf(final VariableDeclarationStatement s, final Set<Entry<String, Information>> up) {
     final List<Entry<String, Information>> $ = new ArrayList<>();
     final type t = type.baptize(wizard.condense(s.getType()));
     final String path = fullName(s);
     for (final VariableDeclarationFragment ¢ : fragments(s))
-      $.add(new MapEntry<>(path + "." + ¢.getName(), createInformation(¢, t)));
+      $.add(new MapEntry<>(path + "." + ¢.getName(), createInformation(¢, t, up)));
     return $;
   }
 
@@ -515,10 +509,11 @@ import il.org.spartan.spartanizer.utils.*;
 
   /** Gets declarations made in ASTNode's Ancestors */
   static LinkedHashSet<Entry<String, Information>> declaresUp(final ASTNode n) {
+    final LinkedHashSet<Entry<String, Information>> $ = new LinkedHashSet<>();
     for (Block PB = getParentBlock(n); PB != null; PB = getParentBlock(PB))
       for (final Statement ¢ : statements(PB))
-        upEnv.addAll(declarationsOf(¢));
-    return upEnv;
+        $.addAll(declarationsOf(¢, $));
+    return $;
   }
 
   static String fullName(final ASTNode ¢) {
@@ -531,7 +526,7 @@ import il.org.spartan.spartanizer.utils.*;
     return EMPTY.spawn();
   }
 
-  static Information get(final LinkedHashSet<Entry<String, Information>> ss, final String s) {
+  static Information get(final Set<Entry<String, Information>> ss, final String s) {
     for (final Entry<String, Information> ¢ : ss)
       if (s.equals(¢.getKey()))
         return ¢.getValue();
@@ -539,10 +534,10 @@ import il.org.spartan.spartanizer.utils.*;
   }
 
   /** [[SuppressWarningsSpartan]] */
-  static Information getHidden(final String ¢) {
+  static Information getHidden(final Set<Entry<String, Information>> up, final String ¢) {
     final String shortName = ¢.substring(¢.lastIndexOf(".") + 1);
     for (String s = parentNameScope(¢); !"".equals(s); s = parentNameScope(s)) {
-      final Information i = get(upEnv, s + "." + shortName);
+      final Information i = get(up, s + "." + shortName);
       if (i != null)
         return i;
     }
@@ -584,7 +579,7 @@ import il.org.spartan.spartanizer.utils.*;
   }
 
   default LinkedHashSet<Entry<String, Information>> entries() {
-    return emptyEntries;
+    return new LinkedHashSet<>();
   }
 
   default LinkedHashSet<Entry<String, Information>> fullEntries() {
@@ -636,7 +631,7 @@ import il.org.spartan.spartanizer.utils.*;
 
   /** @return The names used in the current scope. */
   default Set<String> names() {
-    return emptySet;
+    return new LinkedHashSet<>();
   }
 
   /** @return null at the most outer block. This method is similar to the
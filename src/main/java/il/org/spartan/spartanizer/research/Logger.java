@@ -9,21 +9,30 @@ import il.org.spartan.*;
 import il.org.spartan.plugin.*;
 import il.org.spartan.spartanizer.ast.navigate.*;
 import il.org.spartan.spartanizer.ast.safety.*;
+import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.utils.*;
 import static il.org.spartan.spartanizer.research.idiomatic.*;
 
 /** The purpose of this class is to gather information about NPs and summarize
  * it, so we can submit nice papers and win eternal fame.
  * <p>
- * Whenever an NP is matched it should log itself.
+ * Whenever an NP is matched it should log itself. Statistics are gathered
+ * separately for each {@link Session}.
  * @author Ori Marcovitch
  * @since 2016 */
 public class Logger {
-  private static final Map<Integer, MethodRecord> methodsStatistics = new HashMap<>();
-  private static final Map<String, NPRecord> npStatistics = new HashMap<>();
-  private static final Map<String, Int> nodesStatistics = new HashMap<>();
-  private static final Map<Class<? extends ASTNode>, Int> codeStatistics = new HashMap<>();
-  private static int numMethods;
+  /** Statistics of a single {@link Session} */
+  private static final class State {
+    final Map<Integer, MethodRecord> methodsStatistics = new HashMap<>();
+    final Map<String, NPRecord> npStatistics = new HashMap<>();
+    final Map<String, Int> nodesStatistics = new HashMap<>();
+    final Map<Class<? extends ASTNode>, Int> codeStatistics = new HashMap<>();
+    int numMethods;
+  }
+
+  private static State state() {
+    return Session.current().state(State.class, State::new);
+  }
 
   public static void summarize(final String outputDir) {
     summarizeMethodStatistics(outputDir);
@@ -35,10 +44,11 @@ public class Logger {
     final CSVStatistics report = openMethodSummaryFile(outputDir);
     if (report == null)
       return;
+    final State s = state();
     double sumSratio = 0;
     double sumEratio = 0;
-    for (final Integer k : methodsStatistics.keySet()) {
-      final MethodRecord m = methodsStatistics.get(k);
+    for (final Integer k : s.methodsStatistics.keySet()) {
+      final MethodRecord m = s.methodsStatistics.get(k);
       report //
           .put("Name", m.methodClassName + "~" + m.methodName) //
           .put("#Statement", m.numStatements) //
@@ -54,9 +64,9 @@ public class Logger {
       sumSratio += m.numStatements == 0 ? 1 : m.numNPStatements / m.numStatements;
       sumEratio += m.numExpressions == 0 ? 1 : m.numNPExpressions / m.numExpressions;
     }
-    System.out.println("Total methods number: " + numMethods);
-    System.out.println("Average statement ratio: " + sumSratio / numMethods);
-    System.out.println("Average Expression ratio: " + sumEratio / numMethods);
+    System.out.println("Total methods number: " + s.numMethods);
+    System.out.println("Average statement ratio: " + sumSratio / s.numMethods);
+    System.out.println("Average Expression ratio: " + sumEratio / s.numMethods);
     report.close();
   }
 
@@ -64,6 +74,7 @@ public class Logger {
     final CSVStatistics report = openNPSummaryFile(outputDir);
     if (report == null)
       return;
+    final Map<String, NPRecord> npStatistics = state().npStatistics;
     for (final String k : npStatistics.keySet()) {
       final NPRecord n = npStatistics.get(k);
       report //
@@ -94,8 +105,9 @@ public class Logger {
   }
 
   private static void reset() {
-    methodsStatistics.clear();
-    numMethods = 0;
+    final State s = state();
+    s.methodsStatistics.clear();
+    s.numMethods = 0;
   }
 
   public static void logNP(final ASTNode n, final String np) {
@@ -106,6 +118,7 @@ public class Logger {
   /** @param n
    * @param np */
   private static void logNPInfo(final ASTNode n, final String np) {
+    final Map<String, NPRecord> npStatistics = state().npStatistics;
     execute(() -> npStatistics.put(np, new NPRecord(np, n.getClass()))).when(!npStatistics.containsKey(np));
     npStatistics.get(np).markNP(n);
   }
@@ -114,6 +127,7 @@ public class Logger {
    * @param np */
   static void logNodeInfo(final ASTNode ¢) {
     final String nodeClassName = ¢.getClass().getSimpleName();
+    final Map<String, Int> nodesStatistics = state().nodesStatistics;
     execute(() -> nodesStatistics.put(nodeClassName, new Int())).when(!nodesStatistics.containsKey(nodeClassName));
     ++nodesStatistics.get(nodeClassName).inner;
   }
@@ -121,6 +135,7 @@ public class Logger {
   /** @param ¢
    * @param np */
   static void addToNodeType(final Class<? extends ASTNode> n, final int num) {
+    final Map<Class<? extends ASTNode>, Int> codeStatistics = state().codeStatistics;
     execute(() -> codeStatistics.put(n, new Int())).when(!codeStatistics.containsKey(n));
     codeStatistics.get(n).inner += num;
   }
@@ -132,6 +147,7 @@ public class Logger {
       return;
     }
     final Integer key = Integer.valueOf(m.hashCode());
+    final Map<Integer, MethodRecord> methodsStatistics = state().methodsStatistics;
     execute(() -> methodsStatistics.put(key, new MethodRecord(m))).when(!methodsStatistics.containsKey(key));
     methodsStatistics.get(key).markNP(n, np);
   }
@@ -195,7 +211,7 @@ public class Logger {
   /** Collect statistics of a compilation unit which will be analyzed.
    * @param cu compilation unit */
   public static void logCompilationUnit(final ASTNode cu) {
-    numMethods += metrics.countMethods(cu);
+    state().numMethods += metrics.countMethods(cu);
   }
 
   /** Collects statistics for a nanopattern.
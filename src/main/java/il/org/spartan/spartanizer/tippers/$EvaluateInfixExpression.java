@@ -39,6 +39,10 @@ abstract class $EvaluateInfixExpression extends ReplaceCurrentNode<InfixExpressi
     return -1;
   }
 
+  @Override public final Guard<InfixExpression> guard() {
+    return Guard.infix(operator());
+  }
+
   @Override public final String description() {
     return "Evaluate " + operation();
   }
@@ -23,6 +23,10 @@ public final class InfixAdditionSort extends InfixExpressionSortingFull implemen
     return ExpressionComparator.ADDITION.sort(¢);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(PLUS2);
+  }
+
   @Override protected boolean suitable(final InfixExpression ¢) {
     return in(¢.getOperator(), PLUS2) && type.isNotString(¢);
   }
@@ -16,6 +16,10 @@ public final class InfixAdditionSubtractionExpand extends ReplaceCurrentNode<Inf
     return "Expand additive terms in " + ¢;
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(wizard.PLUS2, wizard.MINUS2);
+  }
+
   @Override public Expression replacement(final InfixExpression ¢) {
     if (TermsCollector.isLeafTerm(¢))
       return null;
@@ -40,6 +40,10 @@ public final class InfixComparisonBooleanLiteral extends ReplaceCurrentNode<Infi
     return literalOnLeft(¢) ? right(¢) : left(¢);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(EQUALS, NOT_EQUALS).and(Guard::noExtendedOperands);
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Eliminate redundant comparison with '" + literal(¢) + "'";
   }
@@ -104,6 +104,10 @@ public final class InfixComparisonSizeToZero extends ReplaceCurrentNode<InfixExp
         || iz.pseudoNumber(¢2) && iz.methodInvocation(¢1);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.comparison();
+  }
+
   @Override public String description(final InfixExpression x) {
     final Expression right = right(x);
     final Expression left = left(x);
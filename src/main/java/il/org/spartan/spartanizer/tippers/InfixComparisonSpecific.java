@@ -29,6 +29,10 @@ import il.org.spartan.spartanizer.tipping.*;
 public final class InfixComparisonSpecific extends ReplaceCurrentNode<InfixExpression> implements TipperCategory.Idiomatic {
   private static final specificity specifity = new specificity();
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.comparison().and(Guard::noExtendedOperands);
+  }
+
   @Override public String description(@SuppressWarnings("unused") final InfixExpression __) {
     return "Exchange left and right operands of comparison";
   }
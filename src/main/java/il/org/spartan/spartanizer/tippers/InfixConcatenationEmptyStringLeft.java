@@ -42,6 +42,10 @@ public final class InfixConcatenationEmptyStringLeft extends ReplaceCurrentNode<
     return ts;
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(wizard.PLUS2).and(Guard.leftOperandIs(ASTNode.STRING_LITERAL));
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Append, rather than prepend, \"\", to " + left(¢);
   }
@@ -26,6 +26,10 @@ public final class InfixConditionalAndTrue extends ReplaceCurrentNode<InfixExpre
     return "Remove 'true' argument to '&&'";
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(InfixExpression.Operator.CONDITIONAL_AND);
+  }
+
   @Override public boolean prerequisite(final InfixExpression ¢) {
     return iz.conditionalAnd(¢) && have.trueLiteral(extract.allOperands(¢));
   }
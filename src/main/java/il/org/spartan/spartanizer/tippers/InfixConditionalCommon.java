@@ -47,6 +47,10 @@ public final class InfixConditionalCommon extends ReplaceCurrentNode<InfixExpres
                 : null;
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(CONDITIONAL_AND, CONDITIONAL_OR);
+  }
+
   @Override public String description(@SuppressWarnings("unused") final InfixExpression __) {
     return "Factor out common logical component of ||";
   }
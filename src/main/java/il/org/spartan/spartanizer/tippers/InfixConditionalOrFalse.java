@@ -26,6 +26,10 @@ public final class InfixConditionalOrFalse extends ReplaceCurrentNode<InfixExpre
     return "Remove 'false' argument to '||'";
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(InfixExpression.Operator.CONDITIONAL_OR);
+  }
+
   @Override public boolean prerequisite(final InfixExpression ¢) {
     return iz.conditionalOr(¢) && have.falseLiteral(extract.allOperands(¢));
   }
@@ -20,6 +20,10 @@ public final class InfixDivisonSortRest extends InfixExpressionSortingRest imple
     return ExpressionComparator.MULTIPLICATION.sort(¢);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(DIVIDE);
+  }
+
   @Override protected boolean suitable(final InfixExpression ¢) {
     return in(¢.getOperator(), DIVIDE);
   }
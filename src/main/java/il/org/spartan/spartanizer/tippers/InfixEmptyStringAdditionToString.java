@@ -26,6 +26,10 @@ public final class InfixEmptyStringAdditionToString extends ReplaceCurrentNode<I
     return "[\"\"+foo]->foo";
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.when(Guard.someOperandIs(ASTNode.STRING_LITERAL));
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Eliminate concatentation of \"\" to" + (iz.emptyStringLiteral(right(¢)) ? left(¢) : right(¢));
   }
@@ -83,6 +83,10 @@ public final class InfixFactorNegatives extends CarefulTipper<InfixExpression> i
     return $;
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(TIMES, DIVIDE);
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Use at most one arithmetical negation, for first factor of " + ¢.getOperator();
   }
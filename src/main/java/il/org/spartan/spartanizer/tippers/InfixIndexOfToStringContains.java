@@ -13,16 +13,15 @@ import il.org.spartan.spartanizer.tipping.*;
 /** @author Ori Marcovitch
  * @since 2016 */
 public final class InfixIndexOfToStringContains extends Tipper<InfixExpression> implements TipperCategory.Idiomatic {
-  private static final List<UserDefinedTipper<InfixExpression>> tippers = new ArrayList<>();
-
-  public InfixIndexOfToStringContains() {
-    if (tippers.size() == 4)
-      return;
-    tippers.add(TipperFactory.tipper("$X1.indexOf($X2)>= 0", "$X1.contains($X2)", "replace indexOf>= 0 with contains"));
-    tippers.add(TipperFactory.tipper("$X1.indexOf($X2) <0", "!$X1.contains($X2)", "replace indexOf <0 with !contains"));
-    tippers.add(TipperFactory.tipper("$X1.indexOf($X2) != -1", "$X1.contains($X2)", "replace indexOf != -1 with contains"));
-    tippers.add(TipperFactory.tipper("$X1.indexOf($X2) == -1", "!$X1.contains($X2)", "replace indexOf == -1 with !contains"));
-  }
+  private final List<UserDefinedTipper<InfixExpression>> tippers = new ArrayList<UserDefinedTipper<InfixExpression>>() {
+    static final long serialVersionUID = 1L;
+    {
+      add(TipperFactory.tipper("$X1.indexOf($X2)>= 0", "$X1.contains($X2)", "replace indexOf>= 0 with contains"));
+      add(TipperFactory.tipper("$X1.indexOf($X2) <0", "!$X1.contains($X2)", "replace indexOf <0 with !contains"));
+      add(TipperFactory.tipper("$X1.indexOf($X2) != -1", "$X1.contains($X2)", "replace indexOf != -1 with contains"));
+      add(TipperFactory.tipper("$X1.indexOf($X2) == -1", "!$X1.contains($X2)", "replace indexOf == -1 with !contains"));
+    }
+  };
 
   /** @see il.org.spartan.spartanizer.tipping.Tipper#canTip(org.eclipse.jdt.core.dom.ASTNode) */
   @Override public boolean canTip(final InfixExpression x) {
@@ -34,6 +33,10 @@ public final class InfixIndexOfToStringContains extends Tipper<InfixExpression>
     return false;
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.comparison().and(Guard.leftOperandIs(ASTNode.METHOD_INVOCATION));
+  }
+
   /** @param x
    * @return */
   private static boolean stringOperands(final InfixExpression x) {
@@ -26,6 +26,10 @@ public final class InfixMultiplicationByOne extends ReplaceCurrentNode<InfixExpr
         : $.isEmpty() ? duplicate.of(first(xs)) : $.size() == 1 ? duplicate.of(first($)) : subject.operands($).to(TIMES);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(TIMES);
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Remove all multiplications by 1 from " + ¢;
   }
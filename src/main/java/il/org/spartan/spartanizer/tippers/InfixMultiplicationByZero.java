@@ -30,6 +30,10 @@ public class InfixMultiplicationByZero extends ReplaceCurrentNode<InfixExpressio
     return false;
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(TIMES);
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Convert" + ¢ + " to 0";
   }
@@ -22,6 +22,10 @@ public final class InfixMultiplicationSort extends InfixExpressionSortingFull im
     return ExpressionComparator.MULTIPLICATION.sort(¢);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(TIMES);
+  }
+
   @Override protected boolean suitable(final InfixExpression ¢) {
     return in(¢.getOperator(), TIMES);
   }
@@ -37,6 +37,10 @@ public final class InfixPlusRemoveParenthesis extends ReplaceCurrentNode<InfixEx
     return true;
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(PLUS);
+  }
+
   @Override public String description() {
     return "remove uneccecary parenthesis";
   }
@@ -24,6 +24,10 @@ public final class InfixPseudoAdditionSort extends InfixExpressionSortingFull im
     return ExpressionComparator.ADDITION.sort(¢);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(OR, XOR, AND);
+  }
+
   @Override protected boolean suitable(final InfixExpression ¢) {
     return in(¢.getOperator(), OR, XOR, AND);
   }
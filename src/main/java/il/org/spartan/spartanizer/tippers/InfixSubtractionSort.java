@@ -23,6 +23,10 @@ public final class InfixSubtractionSort extends InfixExpressionSortingRest imple
     return ExpressionComparator.ADDITION.sort(¢);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(MINUS2);
+  }
+
   @Override protected boolean suitable(final InfixExpression ¢) {
     return in(¢.getOperator(), MINUS2);
   }
@@ -50,6 +50,10 @@ public final class InfixSubtractionZero extends ReplaceCurrentNode<InfixExpressi
     return subject.operands(!iz.literal0(first) ? prune : minusFirst(prune)).to(MINUS2);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(MINUS);
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Remove subtraction of 0 in " + ¢;
   }
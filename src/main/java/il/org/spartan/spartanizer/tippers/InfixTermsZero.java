@@ -28,6 +28,10 @@ public final class InfixTermsZero extends ReplaceCurrentNode<InfixExpression> im
         : $.isEmpty() ? duplicate.of(first(xs)) : $.size() == 1 ? duplicate.of(first($)) : subject.operands($).to(PLUS);
   }
 
+  @Override public Guard<InfixExpression> guard() {
+    return Guard.infix(PLUS);
+  }
+
   @Override public String description(final InfixExpression ¢) {
     return "Remove all additions and substructions of 0 to and from " + ¢;
   }
@@ -35,6 +35,10 @@ public final class PrefixIncrementDecrementReturn extends ReplaceToNextStatement
     return "Consolidate " + ¢ + " with subsequent 'return' of " + operand(¢);
   }
 
+  @Override public Guard<PrefixExpression> guard() {
+    return Guard.prefix(INCREMENT, DECREMENT);
+  }
+
   @Override protected ASTRewrite go(final ASTRewrite r, final PrefixExpression x, final Statement nextStatement, final TextEditGroup g) {
     if (!in(x.getOperator(), INCREMENT, DECREMENT))
       return null;
@@ -106,6 +106,10 @@ public final class PrefixNotPushdown extends ReplaceCurrentNode<PrefixExpression
     return $ != null ? $ : ¢;
   }
 
+  @Override public Guard<PrefixExpression> guard() {
+    return Guard.prefix(PrefixExpression.Operator.NOT);
+  }
+
   @Override public String description(@SuppressWarnings("unused") final PrefixExpression __) {
     return "Pushdown logical negation ('!')";
   }
@@ -22,6 +22,10 @@ public final class PrefixPlusRemove extends ReplaceCurrentNode<PrefixExpression>
     return "Remove unary + in " + ¢;
   }
 
+  @Override public Guard<PrefixExpression> guard() {
+    return Guard.prefix(PLUS);
+  }
+
   @Override public ASTNode replacement(final PrefixExpression ¢) {
     return ¢.getOperator() != PLUS ? null : plant(duplicate.of(heart(¢.getOperand()))).into(¢.getParent());
   }
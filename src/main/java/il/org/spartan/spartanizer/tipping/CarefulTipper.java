@@ -3,23 +3,72 @@ package il.org.spartan.spartanizer.tipping;
 import org.eclipse.jdt.core.dom.*;
 
 import il.org.spartan.plugin.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
 
 /** A {@link Tipper} in which {@link #tip(ASTNode)} is invoked only if
  * {@link #canTip(ASTNode)} returns true. However, in such cases
  * {@link #tip(ASTNode)} may still return null.
+ * <p>
+ * Since {@link #canTip(ASTNode)} makes a {@link Tip} anyway, the tip it made
+ * is remembered, and is returned by the following call to
+ * {@link #tip(ASTNode, ExclusionManager)} for the same node, provided that the
+ * AST did not change in between.
  * @author Yossi Gil
  * @year 2016 */
 public abstract class CarefulTipper<N extends ASTNode> extends Tipper<N> {
+  /** The last tip made by {@link #canTip(ASTNode)} in the current thread */
+  private static final class Memo {
+    CarefulTipper<?> tipper;
+    ASTNode node;
+    long modifications;
+    Tip tip;
+  }
+
+  private static final ThreadLocal<Memo> memo = ThreadLocal.withInitial(Memo::new);
+
   @Override public final boolean canTip(final N ¢) {
     try {
-      return prerequisite(¢) && tip(¢) != null;
+      if (!prerequisite(¢))
+        return false;
+      final Tip $ = tip(¢);
+      if ($ == null)
+        return false;
+      remember(¢, $);
+      return true;
     } catch (final TipperFailure f) {
       monitor.debug(this, f);
       return false;
     }
   }
 
+  @Override public Tip tip(final N n, final ExclusionManager m) throws TipperFailure {
+    final Tip $ = recall(n);
+    return m != null && m.isExcluded(n) ? null : $ != null ? $ : tip(n);
+  }
+
   protected boolean prerequisite(@SuppressWarnings("unused") final N __) {
     return true;
   }
+
+  private void remember(final N n, final Tip t) {
+    final Memo $ = memo.get();
+    $.tipper = this;
+    $.node = n;
+    $.modifications = n.getAST().modificationCount();
+    $.tip = t;
+  }
+
+  /** @param n JD
+   * @return the tip remembered for the parameter, or
+   *         <code><b>null</b></code> if there is none; in either case, the
+   *         memo is forgotten */
+  private Tip recall(final N n) {
+    final Memo m = memo.get();
+    final Tip $ = m.tipper != this || m.node != n || m.modifications != n.getAST().modificationCount() ? null : m.tip;
+    m.tipper = null;
+    m.node = null;
+    m.tip = null;
+    return $;
+  }
 }
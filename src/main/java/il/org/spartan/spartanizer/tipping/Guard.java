@@ -0,0 +1,141 @@
+package il.org.spartan.spartanizer.tipping;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+/** A cheap structural condition, declared by a {@link Tipper} through
+ * {@link Tipper#guard()}, which must hold for
+ * {@link Tipper#canTip(ASTNode)} to return <code><b>true</b></code>. A guard
+ * must be conservative: if it rejects a node, the tipper would not have tipped
+ * it. A guard is made of a set of operators, used by
+ * {@link il.org.spartan.spartanizer.dispatch.Toolbox} to select tippers by
+ * table lookup, and of a condition on the node, checked at dispatch time.
+ * @param <N> type of nodes guarded
+ * @since 2016 */
+public final class Guard<N extends ASTNode> {
+  /** @param os JD
+   * @return a guard admitting only infix expressions with one of the
+   *         parameters as operator */
+  public static Guard<InfixExpression> infix(final InfixExpression.Operator... os) {
+    return new Guard<>(tokens(os), null);
+  }
+
+  /** @return a guard admitting only comparison expressions */
+  public static Guard<InfixExpression> comparison() {
+    return infix(InfixExpression.Operator.EQUALS, InfixExpression.Operator.NOT_EQUALS, InfixExpression.Operator.LESS,
+        InfixExpression.Operator.GREATER, InfixExpression.Operator.LESS_EQUALS, InfixExpression.Operator.GREATER_EQUALS);
+  }
+
+  /** @param os JD
+   * @return a guard admitting only prefix expressions with one of the
+   *         parameters as operator */
+  public static Guard<PrefixExpression> prefix(final PrefixExpression.Operator... os) {
+    return new Guard<>(tokens(os), null);
+  }
+
+  /** @param ¢ JD
+   * @return a guard admitting nodes on which the parameter holds, regardless
+   *         of their operator */
+  public static <N extends ASTNode> Guard<N> when(final Predicate<N> ¢) {
+    return new Guard<>(null, ¢);
+  }
+
+  /** @param ¢ JD
+   * @return the token of the operator of the parameter, or
+   *         <code><b>null</b></code> if it has none */
+  public static String operator(final ASTNode ¢) {
+    switch (¢.getNodeType()) {
+      case ASTNode.INFIX_EXPRESSION:
+        return ((InfixExpression) ¢).getOperator() + "";
+      case ASTNode.PREFIX_EXPRESSION:
+        return ((PrefixExpression) ¢).getOperator() + "";
+      case ASTNode.POSTFIX_EXPRESSION:
+        return ((PostfixExpression) ¢).getOperator() + "";
+      case ASTNode.ASSIGNMENT:
+        return ((Assignment) ¢).getOperator() + "";
+      default:
+        return null;
+    }
+  }
+
+  /** @param ¢ JD
+   * @return <code><b>true</b></code> <em>iff</em> the parameter has no
+   *         extended operands */
+  public static boolean noExtendedOperands(final InfixExpression ¢) {
+    return !¢.hasExtendedOperands();
+  }
+
+  /** @param nodeType JD
+   * @return a condition holding for infix expressions whose left operand is of
+   *         the given node type */
+  public static Predicate<InfixExpression> leftOperandIs(final int nodeType) {
+    return ¢ -> ¢.getLeftOperand().getNodeType() == nodeType;
+  }
+
+  /** @param nodeType JD
+   * @return a condition holding for infix expressions one of whose operands is
+   *         of the given node type */
+  public static Predicate<InfixExpression> someOperandIs(final int nodeType) {
+    return x -> {
+      if (x.getLeftOperand().getNodeType() == nodeType || x.getRightOperand().getNodeType() == nodeType)
+        return true;
+      for (final Object ¢ : x.extendedOperands())
+        if (((ASTNode) ¢).getNodeType() == nodeType)
+          return true;
+      return false;
+    };
+  }
+
+  private static Set<String> tokens(final Object[] os) {
+    final Set<String> $ = new HashSet<>();
+    for (final Object ¢ : os)
+      $.add(¢ + "");
+    return Collections.unmodifiableSet($);
+  }
+
+  /** Tokens of admitted operators; <code><b>null</b></code> if any */
+  private final Set<String> operators;
+  /** Condition on admitted nodes; <code><b>null</b></code> if none */
+  private final Predicate<N> condition;
+
+  private Guard(final Set<String> operators, final Predicate<N> condition) {
+    this.operators = operators;
+    this.condition = condition;
+  }
+
+  /** @param ¢ JD
+   * @return a guard admitting only nodes admitted by this instance, on which
+   *         the parameter holds as well */
+  public Guard<N> and(final Predicate<N> ¢) {
+    return new Guard<>(operators, condition == null ? ¢ : condition.and(¢));
+  }
+
+  /** @param ¢ JD
+   * @return <code><b>true</b></code> <em>iff</em> the parameter is admitted by
+   *         this instance */
+  public boolean admits(final N ¢) {
+    return admitsOperator(operator(¢)) && holds(¢);
+  }
+
+  /** @param ¢ an operator token, or <code><b>null</b></code>
+   * @return <code><b>true</b></code> <em>iff</em> a node with this operator
+   *         may be admitted */
+  public boolean admitsOperator(final String ¢) {
+    return operators == null || operators.contains(¢);
+  }
+
+  /** @param ¢ JD
+   * @return <code><b>true</b></code> <em>iff</em> the condition of this
+   *         instance, if any, holds for the parameter */
+  public boolean holds(final N ¢) {
+    return condition == null || condition.test(¢);
+  }
+
+  /** @return tokens of the operators admitted by this instance, or
+   *         <code><b>null</b></code> if any operator is admitted */
+  public Set<String> operators() {
+    return operators;
+  }
+}
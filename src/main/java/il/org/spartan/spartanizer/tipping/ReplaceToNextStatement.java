@@ -8,10 +8,14 @@ import il.org.spartan.spartanizer.ast.navigate.*;
 import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
 
+/** A {@link CarefulTipper} which rewrites a node together with the statement
+ * following it. Its {@link #prerequisite(ASTNode)} is a dry run of the
+ * rewriting, on a {@link ScratchRewrite}.
+ * @since 2016 */
 public abstract class ReplaceToNextStatement<N extends ASTNode> extends CarefulTipper<N> {
   @Override public boolean prerequisite(final N current) {
     final Statement next = extract.nextStatement(current);
-    return next != null && go(ASTRewrite.create(current.getAST()), current, next, null) != null;
+    return next != null && go(ScratchRewrite.of(current), current, next, null) != null;
   }
 
   @Override public Tip tip(final N n, final ExclusionManager exclude) {
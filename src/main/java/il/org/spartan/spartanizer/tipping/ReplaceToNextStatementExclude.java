@@ -8,10 +8,13 @@ import il.org.spartan.spartanizer.ast.navigate.*;
 import il.org.spartan.spartanizer.dispatch.*;
 import il.org.spartan.spartanizer.engine.*;
 
+/** A {@link ReplaceToNextStatement} whose rewriting may also exclude nodes
+ * from further tipping
+ * @since 2016 */
 public abstract class ReplaceToNextStatementExclude<N extends ASTNode> extends CarefulTipper<N> {
   @Override public boolean prerequisite(final N current) {
     final Statement next = extract.nextStatement(current);
-    return next != null && go(ASTRewrite.create(current.getAST()), current, next, null, new ExclusionManager()) != null;
+    return next != null && go(ScratchRewrite.of(current), current, next, null, new ExclusionManager()) != null;
   }
 
   @Override public Tip tip(final N n, final ExclusionManager exclude) {
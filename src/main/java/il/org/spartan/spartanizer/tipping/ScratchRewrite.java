@@ -0,0 +1,36 @@
+package il.org.spartan.spartanizer.tipping;
+
+import java.lang.ref.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jdt.core.dom.rewrite.*;
+
+/** An {@link ASTRewrite} which is never applied, used for dry runs of the
+ * rewriting made by a tipper, to check whether it succeeds. Rather than
+ * allocating a rewrite for each such check, each thread reuses its instance,
+ * clearing the events recorded by the previous check. The instance is held
+ * weakly, so that it does not keep alive the {@link AST} of the last check
+ * once the round is done.
+ * @since 2016 */
+final class ScratchRewrite extends ASTRewrite {
+  private static final ThreadLocal<WeakReference<ScratchRewrite>> instance = new ThreadLocal<>();
+
+  /** @param ¢ JD
+   * @return an empty rewrite of the AST of the parameter */
+  static ASTRewrite of(final ASTNode ¢) {
+    final WeakReference<ScratchRewrite> r = instance.get();
+    final ScratchRewrite $ = r == null ? null : r.get();
+    if ($ == null || $.getAST() != ¢.getAST()) {
+      final ScratchRewrite fresh = new ScratchRewrite(¢.getAST());
+      instance.set(new WeakReference<>(fresh));
+      return fresh;
+    }
+    $.getRewriteEventStore().clear();
+    $.getNodeStore().clear();
+    return $;
+  }
+
+  private ScratchRewrite(final AST ast) {
+    super(ast);
+  }
+}
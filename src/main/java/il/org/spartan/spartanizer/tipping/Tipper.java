@@ -43,6 +43,15 @@ public abstract class Tipper<N extends ASTNode> implements TipperCategory {
 
   public abstract String description(N n);
 
+  /** A cheap condition which must hold for {@link #canTip(ASTNode)} to
+   * succeed, used by {@link Toolbox} to skip this instance without calling
+   * {@link #canTip(ASTNode)}.
+   * @return a conservative {@link Guard} of this instance, or
+   *         <code><b>null</b></code> if there is none */
+  public Guard<N> guard() {
+    return null;
+  }
+
   /** Heuristics to find the class of operands on which this class works.
    * @return a guess for the type of the node. */
   public final Class<N> myAbstractOperandsClass() {
@@ -0,0 +1,93 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.utils.*;
+
+/** Unit tests for the pure DOM mode of {@link Application}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ApplicationTest {
+  private static final String before = "class A {\n  int f(int x) {\n    int y = x;\n    return y;\n  }\n}\n";
+  private File directory;
+  private File source;
+
+  @Before public void setUp() throws IOException {
+    directory = Files.createTempDirectory("application").toFile();
+    source = new File(directory, "A.java");
+    Files.write(source.toPath(), before.getBytes());
+  }
+
+  @After public void tearDown() {
+    for (final File ¢ : directory.listFiles())
+      ¢.delete();
+    directory.delete();
+  }
+
+  private static String read(final File ¢) throws IOException {
+    return new String(Files.readAllBytes(¢.toPath()));
+  }
+
+  @Test public void fixedFileIsNotWritten() throws IOException {
+    Application.main(new String[] { directory.getPath() });
+    final String fixed = read(source);
+    assert source.setLastModified(1000);
+    Application.main(new String[] { directory.getPath() });
+    azzert.that(read(source), is(fixed));
+    azzert.that(source.lastModified(), is(1000L));
+  }
+
+  @Test public void logOfTipsWithoutJavaElement() throws IOException {
+    LogManager.initialize(directory.getPath());
+    LogManager.activateLog();
+    try {
+      azzert.that(new Trimmer().fixed(before), is(new Session(Toolbox.defaultInstance()).fixed(before)));
+    } finally {
+      LogManager.deActivateLog();
+      LogManager.closeAllWriters();
+    }
+    assert read(new File(directory, "tips.csv")).startsWith(",");
+  }
+
+  @Test public void manifestOfOverwrittenFile() throws IOException {
+    Application.main(new String[] { "-m", directory.getPath() });
+    final Manifest.Entry $ = new Manifest(new File(directory, "spartan.manifest"),
+        Manifest.configuration(Toolbox.defaultInstance(), Integer.valueOf(20), Boolean.FALSE)).get(source.getAbsolutePath(), read(source));
+    assert $ != null;
+    assert $.fixed;
+    azzert.that($.tips, is(0));
+    azzert.that($.rows.size(), is(0));
+  }
+
+  @Test public void newFile() throws IOException {
+    Application.main(new String[] { "-N", directory.getPath() });
+    azzert.that(read(source), is(before));
+    final String $ = read(new File(directory, "A__new.java"));
+    assert !$.equals(before);
+    new File(directory, "A__new.java").delete();
+    Application.main(new String[] { directory.getPath() });
+    azzert.that(read(source), is($));
+  }
+
+  @Test public void trimsInPlace() throws IOException {
+    Application.main(new String[] { directory.getPath() });
+    assert !read(source).equals(before);
+    azzert.that(Arrays.asList(directory.list()), is(Arrays.asList("A.java")));
+  }
+
+  @Test public void withoutWorkspace() {
+    final Application a = new Application();
+    a.optDOM = true;
+    a.run(Arrays.asList(directory.getPath()));
+    assert a.javaProject == null;
+    assert a.pack == null;
+  }
+}
@@ -0,0 +1,106 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Unit tests for {@link Manifest}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ManifestTest {
+  private File directory;
+  private File source;
+  private File file;
+
+  @Before public void setUp() throws IOException {
+    directory = Files.createTempDirectory("manifest").toFile();
+    source = new File(directory, "A.java");
+    Files.write(source.toPath(), "class A {}".getBytes());
+    file = new File(directory, "spartan.manifest");
+  }
+
+  @After public void tearDown() {
+    for (final File ¢ : directory.listFiles())
+      ¢.delete();
+    directory.delete();
+  }
+
+  private Manifest saved(final long configuration, final String[]... rows) throws IOException {
+    final Manifest $ = new Manifest(file, configuration);
+    $.put(source.getPath(), "class A {}", 3, false, Arrays.asList(rows));
+    $.save();
+    return $;
+  }
+
+  @Test public void changedContentMisses() throws IOException {
+    saved(1);
+    final Manifest m = new Manifest(file, 1);
+    assert m.get(source.getPath(), "class A { }") == null;
+    azzert.that(m.misses(), is(1));
+  }
+
+  @Test public void corruptIsIgnored() throws IOException {
+    Files.write(file.toPath(), "file\tA.java\t\t1\tno\ttrue\n".getBytes());
+    azzert.that(new Manifest(file, 1).size(), is(0));
+  }
+
+  @Test public void escapes() {
+    for (final String ¢ : new String[] { "", "a", "a\tb", "a\nb\r\n", "\\t", "\\", "a\\\\nb" })
+      azzert.that(Manifest.unescape(Manifest.escape(¢)), is(¢));
+    assert !Manifest.escape("a\tb\nc").contains("\t");
+    assert !Manifest.escape("a\tb\nc").contains("\n");
+  }
+
+  @Test public void hashOfContent() {
+    azzert.that(Manifest.hash("class A {}"), is(Manifest.hash("class A {}")));
+    assert !Manifest.hash("class A {}").equals(Manifest.hash("class B {}"));
+    azzert.that(Manifest.hash("").length(), is(64));
+  }
+
+  @Test public void missingFilesAreDropped() throws IOException {
+    final Manifest m = saved(1);
+    m.put(new File(directory, "B.java").getPath(), "class B {}", 0, true, Collections.emptyList());
+    m.save();
+    azzert.that(new Manifest(file, 1).size(), is(1));
+  }
+
+  @Test public void noManifest() {
+    final Manifest m = new Manifest(file, 1);
+    azzert.that(m.size(), is(0));
+    assert m.get(source.getPath(), "class A {}") == null;
+  }
+
+  @Test public void otherConfigurationMisses() throws IOException {
+    saved(1);
+    assert new Manifest(file, 2).get(source.getPath(), "class A {}") == null;
+  }
+
+  @Test public void roundTrip() throws IOException {
+    saved(1, new String[] { "a\tb", "" }, new String[] { "class A {\n}\n", "\\n" });
+    final Manifest m = new Manifest(file, 1);
+    final Manifest.Entry e = m.get(source.getPath(), "class A {}");
+    assert e != null;
+    azzert.that(m.hits(), is(1));
+    azzert.that(e.tips, is(3));
+    assert !e.fixed;
+    azzert.that(e.rows.size(), is(2));
+    azzert.that(Arrays.asList(e.rows.get(0)), is(Arrays.asList("a\tb", "")));
+    azzert.that(Arrays.asList(e.rows.get(1)), is(Arrays.asList("class A {\n}\n", "\\n")));
+    assert !new File(file.getPath() + ".tmp").exists();
+  }
+
+  @Test public void toolboxSignature() {
+    final Toolbox t = Toolbox.muttableDefaultInstance();
+    azzert.that(t.signature(), is(Toolbox.muttableDefaultInstance().signature()));
+    t.disable(TipperCategory.Nanos.class);
+    assert t.signature() != Toolbox.muttableDefaultInstance().signature();
+    assert Manifest.configuration(t, Integer.valueOf(20)) != Manifest.configuration(t, Integer.valueOf(10));
+  }
+}
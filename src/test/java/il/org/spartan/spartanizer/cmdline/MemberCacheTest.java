@@ -0,0 +1,117 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Unit tests for {@link MemberCache}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class MemberCacheTest {
+  private static final String before = "class A {\n  int f(int x) {\n    int y = x;\n    return y;\n  }\n  int g() {\n    int z = 1;\n    return z;\n  }\n}\n";
+  private static final String edited = "class A {\n  int f(int x) {\n    int y = x;\n    return y;\n  }\n  int g() {\n    int z = 2;\n    return z;\n  }\n}\n";
+  private File file;
+
+  @Before public void setUp() throws IOException {
+    file = File.createTempFile("members", ".cache");
+    file.delete();
+  }
+
+  @After public void tearDown() {
+    file.delete();
+  }
+
+  private static String fixed(final MemberCache c, final String from) {
+    final Session $ = new Session(Toolbox.defaultInstance());
+    $.useCache(c);
+    return $.fixed(from);
+  }
+
+  @Test public void cachedIsSpliced() {
+    final MemberCache c = new MemberCache(100);
+    final String plain = new Session(Toolbox.defaultInstance()).fixed(before);
+    azzert.that(fixed(c, before), is(plain));
+    azzert.that(c.misses(), is(2));
+    azzert.that(fixed(c, before), is(plain));
+    azzert.that(c.hits(), is(2));
+    azzert.that(fixed(c, plain), is(plain));
+    azzert.that(c.hits(), is(4));
+  }
+
+  @Test public void editedMemberIsTipped() {
+    final MemberCache c = new MemberCache(100);
+    fixed(c, before);
+    final int hits = c.hits();
+    azzert.that(fixed(c, edited), is(new Session(Toolbox.defaultInstance()).fixed(edited)));
+    azzert.that(c.hits() - hits, is(1));
+  }
+
+  @Test public void keyOfContext() {
+    assert !MemberCache.key(1, "class A {}", "int f;").equals(MemberCache.key(1, "class B {}", "int f;"));
+    assert !MemberCache.key(1, "", "int f;").equals(MemberCache.key(2, "", "int f;"));
+    assert !MemberCache.key(1, "a", "b").equals(MemberCache.key(1, "", "ab"));
+    azzert.that(MemberCache.key(1, "", "int f;"), is(MemberCache.key(1, "", "int f;")));
+  }
+
+  @Test public void leastRecentlyUsedIsDropped() {
+    final MemberCache c = new MemberCache(2);
+    c.put("a", "A", Collections.emptyList());
+    c.put("b", "B", Collections.emptyList());
+    assert c.get("a") != null;
+    c.put("c", "C", Collections.emptyList());
+    azzert.that(c.size(), is(2));
+    assert c.get("b") == null;
+    assert c.get("a") != null;
+    assert c.get("c") != null;
+  }
+
+  @Test public void roundTrip() throws IOException {
+    final MemberCache c = new MemberCache(file, 100);
+    c.put("a", "int f() {\n\treturn 1;\n}", Arrays.asList("InliningTipper", "Other\\tipper"));
+    c.put("b", "", Collections.emptyList());
+    c.save();
+    final MemberCache.Entry e = new MemberCache(file, 100).get("a");
+    assert e != null;
+    azzert.that(e.output, is("int f() {\n\treturn 1;\n}"));
+    azzert.that(e.tips, is(Arrays.asList("InliningTipper", "Other\\tipper")));
+    azzert.that(new MemberCache(file, 100).get("b").tips.size(), is(0));
+    assert !new File(file.getPath() + ".tmp").exists();
+  }
+
+  @Test public void savedInOrderOfUse() throws IOException {
+    final MemberCache c = new MemberCache(file, 2);
+    c.put("a", "A", Collections.emptyList());
+    c.put("b", "B", Collections.emptyList());
+    c.get("a");
+    c.save();
+    final MemberCache $ = new MemberCache(file, 2);
+    $.put("c", "C", Collections.emptyList());
+    assert $.get("b") == null;
+    assert $.get("a") != null;
+  }
+
+  @Test public void spliceIsTrusted() {
+    final MemberCache c = new MemberCache(100);
+    final String plain = fixed(c, before);
+    final Toolbox t = Toolbox.defaultInstance();
+    final String shell = "class A {\n  \n  \n}\n";
+    c.put(MemberCache.key(t.signature(), shell, "int g() {\n    int z = 1;\n    return z;\n  }"), "int g() { return 1 + 0; }", Collections.emptyList());
+    final Session s = new Session(t);
+    s.useCache(c);
+    final String $ = s.fixed(before);
+    assert $.contains("int g() { return 1 + 0; }") : $;
+    assert $.contains(plain.substring(plain.indexOf("int f("), plain.indexOf("int g("))) : $;
+  }
+
+  @Test public void unknownIsIgnored() throws IOException {
+    Files.write(file.toPath(), "spartan-member-cache 0\na\tA\n".getBytes());
+    azzert.that(new MemberCache(file, 100).size(), is(0));
+  }
+}
@@ -0,0 +1,167 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+
+/** Unit tests for {@link SpartanizerDaemon}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class SpartanizerDaemonTest {
+  private static final String before = "class A {\n  int f(int x) {\n    int y = x;\n    return y;\n  }\n}\n";
+  private static final String after = new Session(Toolbox.defaultInstance()).fixed(before);
+  private File file;
+
+  @Before public void setUp() throws IOException {
+    file = File.createTempFile("daemon", ".java");
+    Files.write(file.toPath(), before.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @After public void tearDown() {
+    file.delete();
+  }
+
+  private SpartanizerDaemon daemon() {
+    final SpartanizerDaemon $ = new SpartanizerDaemon();
+    $.root = file.getParentFile().toPath();
+    return $;
+  }
+
+  private String serve(final String requests) throws IOException {
+    final ByteArrayOutputStream $ = new ByteArrayOutputStream();
+    daemon().serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), $);
+    return $.toString("UTF-8");
+  }
+
+  private static String ok(final String ¢) {
+    return "OK " + ¢.getBytes(StandardCharsets.UTF_8).length + "\n" + ¢;
+  }
+
+  @Test public void badLength() throws IOException {
+    assert serve("SOURCE x\nPING\n").matches("ERROR [^\n]*\nOK 0\n");
+  }
+
+  @Test public void bigText() throws IOException {
+    assert serve("SOURCE " + (SpartanizerDaemon.maxText + 1) + "\nPING\n").matches("ERROR [^\n]*\n");
+  }
+
+  @Test public void file() throws IOException {
+    azzert.that(serve("FILE " + file.getPath() + "\n"), is(ok(after)));
+    azzert.that(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is(before));
+  }
+
+  @Test(expected = IOException.class) public void longLine() throws IOException {
+    final char[] $ = new char[SpartanizerDaemon.maxLine + 1];
+    Arrays.fill($, 'x');
+    serve(new String($) + "\n");
+  }
+
+  @Test public void missingFile() throws IOException {
+    assert serve("FILE " + file.getPath() + ".none\n").startsWith("ERROR ");
+  }
+
+  @Test public void negativeLength() throws IOException {
+    assert serve("SOURCE -1\nPING\n").matches("ERROR [^\n]*\nOK 0\n");
+  }
+
+  @Test public void outsideRoot() throws IOException {
+    final File d = Files.createTempDirectory("daemon").toFile();
+    try {
+      final SpartanizerDaemon s = new SpartanizerDaemon();
+      s.root = d.toPath();
+      final ByteArrayOutputStream $ = new ByteArrayOutputStream();
+      s.serve(new ByteArrayInputStream(("WRITE " + d + "/../" + file.getName() + "\n").getBytes(StandardCharsets.UTF_8)), $);
+      assert $.toString("UTF-8").startsWith("ERROR ");
+      azzert.that(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is(before));
+    } finally {
+      d.delete();
+    }
+  }
+
+  @Test public void ping() throws IOException {
+    azzert.that(serve("PING\r\nPING\n"), is("OK 0\nOK 0\n"));
+  }
+
+  @Test public void quit() throws IOException {
+    azzert.that(serve("PING\nQUIT\nPING\n"), is("OK 0\n"));
+  }
+
+  @Test public void socket() throws IOException, InterruptedException {
+    final ServerSocket s = SpartanizerDaemon.listen(0);
+    final SpartanizerDaemon d = daemon();
+    final Thread t = new Thread(() -> d.serve(s, "secret"));
+    t.start();
+    try (Socket ¢ = new Socket(InetAddress.getLoopbackAddress(), s.getLocalPort())) {
+      ¢.getOutputStream().write(("TOKEN guess\nFILE " + file.getPath() + "\n").getBytes(StandardCharsets.UTF_8));
+      final BufferedReader r = new BufferedReader(new InputStreamReader(¢.getInputStream(), StandardCharsets.UTF_8));
+      assert r.readLine().startsWith("ERROR ");
+      azzert.isNull(r.readLine());
+    }
+    for (int i = 0; i < 2; ++i)
+      try (Socket ¢ = new Socket(InetAddress.getLoopbackAddress(), s.getLocalPort())) {
+        ¢.getOutputStream().write(("TOKEN secret\nFILE " + file.getPath() + "\nQUIT\n").getBytes(StandardCharsets.UTF_8));
+        final byte[] $ = new byte[ok(after).getBytes(StandardCharsets.UTF_8).length];
+        new DataInputStream(¢.getInputStream()).readFully($);
+        azzert.that(new String($, StandardCharsets.UTF_8), is(ok(after)));
+      }
+    try (Socket ¢ = new Socket(InetAddress.getLoopbackAddress(), s.getLocalPort())) {
+      ¢.getOutputStream().write("TOKEN secret\nSTOP\n".getBytes(StandardCharsets.UTF_8));
+      azzert.that(new BufferedReader(new InputStreamReader(¢.getInputStream(), StandardCharsets.UTF_8)).readLine(), is("OK 0"));
+    }
+    t.join(10000);
+    assert !t.isAlive();
+    assert s.isClosed();
+  }
+
+  @Test public void source() throws IOException {
+    final String text = "class ¢ {}\n" + before;
+    azzert.that(serve("SOURCE " + text.getBytes(StandardCharsets.UTF_8).length + "\n" + text + "PING\n"),
+        is(ok(new Session(Toolbox.defaultInstance()).fixed(text)) + "OK 0\n"));
+  }
+
+  @Test public void stop() throws IOException {
+    final ByteArrayOutputStream $ = new ByteArrayOutputStream();
+    assert new SpartanizerDaemon().serve(new ByteArrayInputStream("STOP\nPING\n".getBytes(StandardCharsets.UTF_8)), $);
+    azzert.that($.toString("UTF-8"), is("OK 0\n"));
+  }
+
+  @Test public void tips() throws IOException {
+    final String $ = serve("TIPS " + file.getPath() + "\n");
+    assert $.matches("OK \\d+\n(\\d+: [^\n]+\n)+") : $;
+  }
+
+  @Test public void token() throws IOException {
+    final Path p = file.toPath().resolveSibling(file.getName() + ".token");
+    try {
+      final String $ = SpartanizerDaemon.token(p);
+      assert $.matches("[0-9a-f]{64}") : $;
+      azzert.that(new String(Files.readAllBytes(p), StandardCharsets.UTF_8), is($));
+      azzert.that(PosixFilePermissions.toString(Files.getPosixFilePermissions(p)), is("rw-------"));
+      assert !SpartanizerDaemon.token(p).equals($);
+    } finally {
+      Files.deleteIfExists(p);
+    }
+  }
+
+  @Test public void unknown() throws IOException {
+    assert serve("GO\n").startsWith("ERROR ");
+  }
+
+  @Test public void write() throws IOException {
+    azzert.that(serve("WRITE " + file.getPath() + "\n"), is("OK 0\n"));
+    azzert.that(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), is(after));
+    final long modified = file.lastModified();
+    azzert.that(serve("WRITE " + file.getPath() + "\n"), is("OK 0\n"));
+    azzert.that(file.lastModified(), is(modified));
+  }
+}
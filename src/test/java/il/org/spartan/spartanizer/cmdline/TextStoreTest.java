@@ -0,0 +1,56 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+
+/** Unit tests for {@link TextStore}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TextStoreTest {
+  private File directory;
+  private TextStore store;
+
+  @Before public void setUp() throws IOException {
+    directory = new File(Files.createTempDirectory("texts").toFile(), "store");
+    store = new TextStore(directory);
+  }
+
+  @After public void tearDown() {
+    final File[] fs = directory.listFiles();
+    if (fs != null)
+      for (final File ¢ : fs)
+        ¢.delete();
+    directory.delete();
+    directory.getParentFile().delete();
+  }
+
+  @Test public void keptOnce() throws IOException {
+    azzert.that(store.put("class A {}"), is(store.put("class A {}")));
+    azzert.that(directory.list().length, is(1));
+  }
+
+  @Test public void missing() {
+    azzert.isNull(store.get(Manifest.hash("class A {}")));
+  }
+
+  @Test public void retain() throws IOException {
+    final String a = store.put("class A {}"), b = store.put("class B {}");
+    store.retain(Collections.singleton(a));
+    azzert.that(store.get(a), is("class A {}"));
+    azzert.isNull(store.get(b));
+  }
+
+  @Test public void roundTrip() throws IOException {
+    final String text = "class ¢ {\n\tint f;\r\n}";
+    final String $ = store.put(text);
+    azzert.that($, is(Manifest.hash(text)));
+    azzert.that(new TextStore(directory).get($), is(text));
+  }
+}
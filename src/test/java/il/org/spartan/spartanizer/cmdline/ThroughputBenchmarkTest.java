@@ -0,0 +1,63 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.cmdline.ThroughputBenchmark.*;
+
+/** Unit tests for {@link ThroughputBenchmark}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ThroughputBenchmarkTest {
+  private static Map<Measure, Double> report(final double filesPerSecond, final double p99Millis) {
+    final Map<Measure, Double> $ = new EnumMap<>(Measure.class);
+    for (final Measure ¢ : Measure.values())
+      $.put(¢, Double.valueOf(1));
+    $.put(Measure.filesPerSecond, Double.valueOf(filesPerSecond));
+    $.put(Measure.p99Millis, Double.valueOf(p99Millis));
+    return $;
+  }
+
+  private static Properties baseline() {
+    final Properties $ = new Properties();
+    for (final Measure ¢ : Measure.values())
+      $.setProperty(¢ + "", "1");
+    $.setProperty(Measure.filesPerSecond + "", "100");
+    $.setProperty(Measure.p99Millis + "", "20");
+    return $;
+  }
+
+  @Test public void budgetKept() {
+    assert new ThroughputBenchmark().exceeded(baseline(), report(95, 21)).isEmpty();
+  }
+
+  @Test public void fasterIsNoRegression() {
+    assert new ThroughputBenchmark().exceeded(baseline(), report(200, 10)).isEmpty();
+  }
+
+  @Test public void fewerFilesPerSecondExceeds() {
+    azzert.that(new ThroughputBenchmark().exceeded(baseline(), report(80, 20)).keySet(), is(EnumSet.of(Measure.filesPerSecond)));
+  }
+
+  @Test public void longerLatencyExceeds() {
+    azzert.that(new ThroughputBenchmark().exceeded(baseline(), report(100, 30)).keySet(), is(EnumSet.of(Measure.p99Millis)));
+  }
+
+  @Test public void measuresCorpus() {
+    final Map<Measure, Double> $ = new ThroughputBenchmark().measure(Arrays.asList("class A { int f() { int a = 1; return a; } }", "class B {}"));
+    azzert.that($.get(Measure.iterationsPerFile).doubleValue(), greaterThan(1.0));
+    azzert.that($.get(Measure.filesPerSecond).doubleValue(), greaterThan(0.0));
+    assert $.get(Measure.p50Millis).doubleValue() <= $.get(Measure.p99Millis).doubleValue();
+  }
+
+  @Test public void percentiles() {
+    final long[] ¢ = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+    azzert.that(ThroughputBenchmark.percentile(¢, 0.5), is(5L));
+    azzert.that(ThroughputBenchmark.percentile(¢, 0.99), is(10L));
+    azzert.that(ThroughputBenchmark.percentile(new long[0], 0.5), is(0L));
+  }
+}
@@ -0,0 +1,132 @@
+package il.org.spartan.spartanizer.cmdline;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+
+/** Unit tests for {@link Watcher}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class WatcherTest {
+  private static final String tipped = "class A {\n  int f(int x) {\n    int y = x;\n    return y;\n  }\n}\n";
+  private Path directory;
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private Watcher watcher;
+
+  @Before public void setUp() throws IOException {
+    directory = Files.createTempDirectory("watcher");
+    watcher = new Watcher(directory, new PrintStream(out, true), 50);
+  }
+
+  @After public void tearDown() throws IOException {
+    watcher.close();
+    final List<Path> $ = new ArrayList<>();
+    try (Stream<Path> ps = Files.walk(directory)) {
+      ps.forEach($::add);
+    }
+    Collections.reverse($);
+    for (final Path ¢ : $)
+      Files.delete(¢);
+  }
+
+  private Path write(final String name, final String content) throws IOException {
+    final Path $ = directory.resolve(name);
+    Files.createDirectories($.getParent());
+    return Files.write($, content.getBytes());
+  }
+
+  /** Wait until the output holds some text */
+  private void await(final String text) throws InterruptedException {
+    for (int ¢ = 0; ¢ < 200 && !out.toString().contains(text); ++¢)
+      Thread.sleep(50);
+    assert out.toString().contains(text) : out;
+  }
+
+  private Thread watching() {
+    final Thread $ = new Thread(() -> {
+      try {
+        watcher.watch();
+      } catch (@SuppressWarnings("unused") final Exception __) {
+        // Stopped
+      }
+    });
+    $.start();
+    return $;
+  }
+
+  @Test public void checkPrintsTips() throws IOException {
+    final Path f = write("A.java", tipped);
+    assert watcher.check(f) > 0;
+    for (final String ¢ : out.toString().split("\n"))
+      assert ¢.matches(".*A\\.java:\\d+: .+") : ¢;
+  }
+
+  @Test public void missingFile() {
+    azzert.that(watcher.check(directory.resolve("None.java")), is(-1));
+    azzert.that(out.size(), is(0));
+  }
+
+  @Test public void noTips() throws IOException {
+    final Path f = write("A.java", "class A {}\n");
+    azzert.that(watcher.check(f), is(0));
+    azzert.that(out.toString().trim(), is(f + ": no tips"));
+  }
+
+  @Test public void scanInOrder() throws IOException {
+    write("b/B.java", "class B {}\n");
+    write("A.java", "class A {}\n");
+    write("b/C.txt", "class C {}\n");
+    watcher.scan();
+    azzert.that(out.toString().trim(), is(directory.resolve("A.java") + ": no tips\n" + directory.resolve("b/B.java") + ": no tips"));
+  }
+
+  @Test public void unchangedIsSkipped() throws IOException {
+    final Path f = write("A.java", tipped);
+    watcher.check(f);
+    azzert.that(watcher.check(f), is(-1));
+    write("A.java", "class A {}\n");
+    azzert.that(watcher.check(f), is(0));
+  }
+
+  @Test public void vanishingDirectories() throws IOException, InterruptedException {
+    final Thread t = watching();
+    for (int ¢ = 0; ¢ < 20; ++¢) {
+      final Path d = Files.createDirectories(directory.resolve("e/f"));
+      Files.delete(d);
+      Files.delete(d.getParent());
+    }
+    final Path f = write("A.java", tipped);
+    await(f + ":");
+    assert t.isAlive();
+    watcher.close();
+    t.join(10000);
+  }
+
+  @Test public void watchesChanges() throws IOException, InterruptedException {
+    final Thread t = watching();
+    final Path f = write("A.java", tipped);
+    await(f + ":");
+    write("A.java", "class A {}\n");
+    await(f + ": no tips");
+    watcher.close();
+    t.join(10000);
+    assert !t.isAlive();
+  }
+
+  @Test public void watchesNewDirectories() throws IOException, InterruptedException {
+    final Thread t = watching();
+    write("c/d/A.java", "class A {}\n");
+    await(directory.resolve("c/d/A.java") + ": no tips");
+    final Path f = write("c/d/B.java", tipped);
+    await(f + ":");
+    watcher.close();
+    t.join(10000);
+  }
+}
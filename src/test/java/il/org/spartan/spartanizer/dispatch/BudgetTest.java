@@ -0,0 +1,83 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+
+/** Unit tests for {@link Budget}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class BudgetTest {
+  private static final String code = "class A { int f(int a) { int b = a; if (b > 0) return b; else return 0; } int g() { return 1 * 2 * 3; } }";
+
+  @Test public void fallback() {
+    final Budget b = new Budget().tips(1).fallback(Toolbox.emptyToolboox());
+    final String $ = new Trimmer().fixed(code, b);
+    azzert.that(b.exhausted(), is(Budget.Limit.TIPS));
+    azzert.that($, is(new Trimmer().fixed(code, new Budget().tips(1))));
+  }
+
+  @Test public void fallbackGoesOn() {
+    final Toolbox t = Toolbox.muttableDefaultInstance();
+    final String $ = new Trimmer().fixed(code, new Budget().rounds(1).fallback(t));
+    azzert.that($, is(new Trimmer(t).fixed(new Trimmer().fixed(code, new Budget().rounds(1)), new Budget().rounds(1))));
+    assert !$.equals(new Trimmer().fixed(code, new Budget().rounds(1)));
+  }
+
+  @Test public void firingTippers() {
+    final Budget b = new Budget().rounds(1);
+    new Trimmer().fixed(code, b);
+    azzert.that(b.exhausted(), is(Budget.Limit.ROUNDS));
+    assert !b.firing().isEmpty();
+    assert (b + "").contains("ROUNDS budget exhausted");
+  }
+
+  @Test public void roundsLimit() {
+    final Budget b = new Budget().rounds(1);
+    final String $ = new Trimmer().fixed(code, b);
+    azzert.that(b.rounds(), is(1));
+    assert !$.equals(code);
+    assert !$.equals(new Trimmer().fixed(code));
+  }
+
+  @Test public void time() {
+    final Budget b = new Budget().millis(0);
+    azzert.that(new Trimmer().fixed(code, b), is(code));
+    azzert.that(b.exhausted(), is(Budget.Limit.TIME));
+  }
+
+  @Test public void tipsLimit() {
+    final Budget b = new Budget().tips(1);
+    new Trimmer().fixed(code, b);
+    azzert.that(b.tips(), is(1));
+    azzert.that(b.exhausted(), is(Budget.Limit.TIPS));
+    azzert.that(b.firing().size(), is(1));
+  }
+
+  @Test public void tipsInRounds() {
+    final Budget b = new Budget();
+    new Trimmer().fixed(code, b);
+    int $ = 0;
+    for (int ¢ = 0; ¢ < b.rounds(); ++¢)
+      $ += b.tipsInRound(¢);
+    azzert.that($, is(b.tips()));
+    assert b.tipsInRound(0) > 0;
+    azzert.that(b.tipsInRound(b.rounds() - 1), is(0));
+  }
+
+  @Test public void unlimited() {
+    final Budget b = new Budget();
+    azzert.that(new Trimmer().fixed(code, b), is(new Trimmer().fixed(code)));
+    assert b.exhausted() == null;
+    assert b.tips() > 0;
+  }
+
+  @Test public void zeroTips() {
+    final Budget b = new Budget().tips(0);
+    azzert.that(new Trimmer().fixed(code, b), is(code));
+    azzert.that(b.rounds(), is(0));
+    assert b.firing().isEmpty();
+  }
+}
@@ -0,0 +1,85 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jface.text.*;
+import org.eclipse.text.edits.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.utils.*;
+
+/** Unit tests for {@link DirtyRegions}, checking that the incremental
+ * {@link Trimmer#fixed(String)} agrees with a full reparse loop
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class DirtyRegionsTest {
+  private static String fullFixedPoint(final String from) throws MalformedTreeException, BadLocationException {
+    final Trimmer t = new Trimmer();
+    for (final Document $ = new Document(from);;) {
+      final TextEdit e = t.createRewrite((CompilationUnit) makeAST.COMPILATION_UNIT.from($.get())).rewriteAST($, null);
+      e.apply($);
+      if (!e.hasChildren())
+        return $.get();
+    }
+  }
+
+  private static void agree(final String from) throws MalformedTreeException, BadLocationException {
+    azzert.that(new Trimmer().fixed(from), is(fullFixedPoint(from)));
+  }
+
+  @Test public void agreesOnCorpus() throws IOException, MalformedTreeException, BadLocationException {
+    agree(FileUtils.readFromFile("laconization-cases/TreeRangeSet.java"));
+  }
+
+  @Test public void agreesOnSeveralMembers() throws MalformedTreeException, BadLocationException {
+    agree("class A {\n" //
+        + "  int f(int a) { int b = a; return b; }\n" //
+        + "  int g() { if (x) return 1; else return 2; }\n" //
+        + "  int h() { return 3; }\n" //
+        + "  int x = 1 + 2 + 3;\n" //
+        + "}\n");
+  }
+
+  @Test public void agreesWhenShellChanges() throws MalformedTreeException, BadLocationException {
+    agree("final class A {\n" //
+        + "  final int f() { int b = 2; return b; }\n" //
+        + "  int g() { return 1; }\n" //
+        + "}\n");
+  }
+
+  @Test public void shellIgnoresMembers() {
+    final String text = "class A { int f() { return 1; } int x; }";
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(text);
+    azzert.that(DirtyRegions.shell(text, DirtyRegions.members(u)), is("class A {   }"));
+  }
+
+  @Test public void shellOfOverlappingMembers() {
+    final String text = "class A { int f() { return 1; } int x; }";
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(text);
+    final List<BodyDeclaration> ds = DirtyRegions.members(u);
+    ds.get(0).setSourceRange(ds.get(0).getStartPosition(), ds.get(1).getStartPosition() + 3 - ds.get(0).getStartPosition());
+    azzert.that(DirtyRegions.shell(text, ds), is("class A {  }"));
+  }
+
+  @Test public void skipsMembersWithNoTips() {
+    final String text = "class A { int f() { return 1; } int g() { int a = 1; return a; } }";
+    final DirtyRegions d = new DirtyRegions();
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(text);
+    d.begin(u, text);
+    final BodyDeclaration g = DirtyRegions.members(u).get(1);
+    d.tipped(g);
+    assert !d.end(true);
+    final CompilationUnit u2 = (CompilationUnit) makeAST.COMPILATION_UNIT.from(text);
+    d.begin(u2, text);
+    assert d.skip(DirtyRegions.members(u2).get(0));
+    assert !d.skip(DirtyRegions.members(u2).get(1));
+    azzert.that(d.skipped(), is(1));
+    assert !d.end(false);
+  }
+}
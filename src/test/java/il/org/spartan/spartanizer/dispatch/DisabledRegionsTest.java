@@ -0,0 +1,78 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link DisabledRegions}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class DisabledRegionsTest {
+  private static final String nested = "class A {\n" //
+      + "  /** [[SuppressWarningsSpartan]] */ class B {\n" //
+      + "    int f() { return 1; }\n" //
+      + "    /** {@code [[EnableWarningsSpartan]]} */ int g() { return 2; }\n" //
+      + "    /** [[EnableWarningsSpartan]] */ class C {\n" //
+      + "      /** [[SuppressWarningsSpartan]] */ int h() { return 3; }\n" //
+      + "      int i() { return 4; }\n" //
+      + "    }\n" //
+      + "  }\n" //
+      + "  int j() { return 5; }\n" //
+      + "}\n";
+
+  private static MethodDeclaration method(final CompilationUnit u, final String name) {
+    final MethodDeclaration[] $ = { null };
+    u.accept(new ASTVisitor() {
+      @Override public boolean visit(final MethodDeclaration ¢) {
+        if (name.equals(¢.getName().getIdentifier()))
+          $[0] = ¢;
+        return true;
+      }
+    });
+    return $[0];
+  }
+
+  @Test public void computedOncePerAST() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(nested);
+    disabling.scan(u);
+    azzert.that(DisabledRegions.of(method(u, "f")), sameInstance(DisabledRegions.of(u)));
+  }
+
+  @Test public void innermostMarkerWins() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(nested);
+    disabling.scan(u);
+    assert disabling.on(method(u, "f").getBody());
+    assert !disabling.on(method(u, "g"));
+    assert !disabling.on(method(u, "g").getBody());
+    assert disabling.on(method(u, "h").getBody());
+    assert !disabling.on(method(u, "i").getBody());
+    assert !disabling.on(method(u, "j").getBody());
+    assert !disabling.on(u);
+  }
+
+  @Test public void newNodesAreNotDisabled() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(nested);
+    assert !disabling.on(u.getAST().newBlock());
+  }
+
+  @Test public void rootsOfOneAST() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(nested);
+    final TypeDeclaration b = (TypeDeclaration) ((TypeDeclaration) u.types().get(0)).bodyDeclarations().get(0);
+    b.delete();
+    final ASTNode f = ASTNode.copySubtree(u.getAST(), b.getMethods()[0]);
+    assert disabling.on(b.getMethods()[0].getBody());
+    assert !disabling.on(((MethodDeclaration) f).getBody());
+  }
+
+  @Test public void withoutCompilationUnit() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(nested);
+    final TypeDeclaration b = (TypeDeclaration) ((TypeDeclaration) u.types().get(0)).bodyDeclarations().get(0);
+    b.delete();
+    assert disabling.on(b.getMethods()[0].getBody());
+    assert !disabling.on(b.getMethods()[1].getBody());
+  }
+}
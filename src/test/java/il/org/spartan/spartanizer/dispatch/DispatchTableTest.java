@@ -0,0 +1,54 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Unit tests for {@link DispatchTable}, checking that guarded dispatch finds
+ * the same tipper as a linear scan of {@link Tipper#canTip(ASTNode)}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class DispatchTableTest {
+  private static final String[] expressions = { "a * 1", "2 * 3", "a + 0", "\"\" + a", "a + \"\"", "a == true", "null != a", "x.size() == 0",
+      "s.indexOf(t) == -1", "a && true", "a || false", "a && b || a && c", "a - b - c", "a / b * c", "b | a", "a < b", "++i", "!(a && b)", "+a",
+      "-a", "a++" };
+
+  @SuppressWarnings("unchecked") private static <N extends ASTNode> Tipper<N> linearScan(final N n, final List<Tipper<? extends ASTNode>> ts) {
+    for (final Tipper<?> ¢ : ts)
+      if (((Tipper<N>) ¢).canTip(n))
+        return (Tipper<N>) ¢;
+    return null;
+  }
+
+  @Test public void agreesWithLinearScan() {
+    final Toolbox t = Toolbox.defaultInstance();
+    for (final String s : expressions)
+      makeAST.EXPRESSION.from(s).accept(new ASTVisitor() {
+        @Override public void preVisit(final ASTNode ¢) {
+          azzert.that(s, t.firstTipper(¢), is(linearScan(¢, t.get(¢.getNodeType()))));
+        }
+      });
+  }
+
+  @Test public void countsAvoidedCalls() {
+    final Toolbox t = Toolbox.muttableDefaultInstance();
+    azzert.that(t.canTipCallsAvoided(), is(0L));
+    t.firstTipper(into.i("a < b"));
+    azzert.that(t.canTipCallsAvoided(), greaterThan(0L));
+  }
+
+  @Test public void recompiledAfterChange() {
+    final Toolbox t = Toolbox.muttableDefaultInstance();
+    final InfixExpression x = into.i("a * 1");
+    assert t.firstTipper(x) != null;
+    t.get(ASTNode.INFIX_EXPRESSION).clear();
+    assert t.firstTipper(x) == null;
+  }
+}
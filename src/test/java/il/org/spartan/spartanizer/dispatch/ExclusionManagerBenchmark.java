@@ -0,0 +1,48 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+
+import il.org.spartan.spartanizer.engine.*;
+
+/** Compares {@link ExclusionManager#isExcluded(ASTNode)} with the walk over
+ * ancestors it replaced, on deeply nested code. Run with the nesting depth as
+ * an optional argument.
+ * @since 2016 */
+@SuppressWarnings("javadoc") public final class ExclusionManagerBenchmark {
+  static String nested(final int depth) {
+    final StringBuilder $ = new StringBuilder("class A { int f(int a) {\n");
+    for (int ¢ = 0; ¢ < depth; ++¢)
+      $.append("if (a > ").append(¢).append(") { a = a * (a + ").append(¢).append(");\n");
+    for (int ¢ = 0; ¢ < depth; ++¢)
+      $.append("}\n");
+    return $.append("return a; } }") + "";
+  }
+
+  public static void main(final String[] args) {
+    final int depth = args.length == 0 ? 300 : Integer.parseInt(args[0]);
+    final List<ASTNode> ns = ExclusionManagerTest.nodes(makeAST.COMPILATION_UNIT.from(nested(depth)));
+    final ExclusionManager m = new ExclusionManager();
+    final Set<ASTNode> excluded = new HashSet<>();
+    for (final ASTNode ¢ : ns)
+      if (¢ instanceof Assignment) {
+        m.exclude(¢);
+        excluded.add(¢);
+      }
+    System.out.println("depth=" + depth + " nodes=" + ns.size() + " exclusions=" + excluded.size());
+    for (int round = 0; round < 5; ++round) {
+      int hits = 0;
+      long t = System.nanoTime();
+      for (final ASTNode ¢ : ns)
+        hits += ExclusionManagerTest.walk(excluded, ¢) ? 1 : 0;
+      final long walk = System.nanoTime() - t;
+      t = System.nanoTime();
+      for (final ASTNode ¢ : ns)
+        hits -= m.isExcluded(¢) ? 1 : 0;
+      final long ranges = System.nanoTime() - t;
+      assert hits == 0;
+      System.out.printf("ancestor walk: %6d ns/node   ranges: %4d ns/node%n", Long.valueOf(walk / ns.size()), Long.valueOf(ranges / ns.size()));
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.utils.*;
+
+/** Unit tests for {@link ExclusionManager}, checking the range index against
+ * a walk over ancestors
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ExclusionManagerTest {
+  static boolean walk(final Set<ASTNode> excluded, final ASTNode n) {
+    for (final ASTNode ¢ : hop.ancestors(n))
+      if (excluded.contains(¢))
+        return true;
+    return false;
+  }
+
+  static List<ASTNode> nodes(final ASTNode root) {
+    final List<ASTNode> $ = new ArrayList<>();
+    root.accept(new ASTVisitor(true) {
+      @Override public void preVisit(final ASTNode ¢) {
+        $.add(¢);
+      }
+    });
+    return $;
+  }
+
+  private static void agree(final ExclusionManager m, final Set<ASTNode> excluded, final List<ASTNode> ns) {
+    for (final ASTNode ¢ : ns)
+      azzert.that(¢ + "", m.isExcluded(¢), is(walk(excluded, ¢)));
+  }
+
+  @Test public void agreesOnCorpus() throws IOException {
+    final List<ASTNode> ns = nodes(makeAST.COMPILATION_UNIT.from(FileUtils.readFromFile("laconization-cases/TreeRangeSet.java")));
+    final ExclusionManager m = new ExclusionManager();
+    final Set<ASTNode> excluded = new HashSet<>();
+    for (int ¢ = ns.size() - 1; ¢ >= 0; ¢ -= 37) {
+      m.exclude(ns.get(¢));
+      excluded.add(ns.get(¢));
+      agree(m, excluded, ns);
+    }
+  }
+
+  @Test public void childWithSameRangeDoesNotExcludeParent() {
+    final SimpleType t = (SimpleType) into.t("A a;");
+    final ExclusionManager m = new ExclusionManager();
+    m.exclude(t.getName());
+    assert m.isExcluded(t.getName());
+    assert !m.isExcluded(t);
+    m.exclude(t);
+    assert m.isExcluded(t);
+  }
+
+  @Test public void excludesDescendants() {
+    final InfixExpression x = into.i("a + b * c");
+    final ExclusionManager m = new ExclusionManager();
+    m.exclude(x.getRightOperand());
+    assert m.isExcluded(((InfixExpression) x.getRightOperand()).getLeftOperand());
+    assert !m.isExcluded(x.getLeftOperand());
+    assert !m.isExcluded(x);
+  }
+
+  @Test public void handlesNodesWithNoRange() {
+    final InfixExpression x = into.i("a + b");
+    final InfixExpression y = x.getAST().newInfixExpression();
+    final ExclusionManager m = new ExclusionManager();
+    m.exclude(y);
+    assert m.isExcluded(y);
+    assert m.isExcluded(y.getLeftOperand());
+    assert !m.isExcluded(x);
+  }
+
+  @Test public void unExclude() {
+    final InfixExpression x = into.i("a + b * c");
+    final ExclusionManager m = new ExclusionManager();
+    m.exclude(x.getRightOperand());
+    m.exclude(x);
+    m.unExclude(x);
+    assert !m.isExcluded(x.getLeftOperand());
+    assert m.isExcluded(x.getRightOperand());
+  }
+}
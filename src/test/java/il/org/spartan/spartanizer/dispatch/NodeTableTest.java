@@ -0,0 +1,79 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.NodeTable.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link NodeTable}, and for {@link NodeData}, which is kept
+ * in it
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class NodeTableTest {
+  private static final Slot<String> slot = new Slot<>("test");
+
+  @Test public void discardDropsAllData() {
+    final InfixExpression x = into.i("a + b");
+    NodeTable.of(x).set(slot, x, "x");
+    NodeTable.discard(x.getAST());
+    assert !NodeTable.of(x).has(slot, x);
+  }
+
+  @Test public void flagOfDisabledNodes() {
+    final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT
+        .from("class A { /** [[SuppressWarningsSpartan]] */ int f() { return 1; } int g() { return 2; } }");
+    disabling.scan(u);
+    final TypeDeclaration t = (TypeDeclaration) u.types().get(0);
+    assert disabling.on(t.getMethods()[0].getBody());
+    assert !disabling.on(t.getMethods()[1].getBody());
+  }
+
+  @Test public void keptAliveByTheRoot() {
+    final InfixExpression x = into.i("a + b");
+    NodeTable.of(x).set(slot, x, "x");
+    NodeTable.of(into.i("c + d"));
+    System.gc();
+    azzert.that(NodeTable.of(x).get(slot, x), is("x"));
+  }
+
+  @Test public void nodeDataByPropertyName() {
+    final InfixExpression x = into.i("a + b");
+    assert !NodeData.has(x, "p");
+    NodeData.set(x, "p");
+    assert NodeData.has(x, "p");
+    azzert.that(NodeData.get(x, "p"), is((Object) Boolean.TRUE));
+    NodeData.unset(x, "p");
+    assert !NodeData.has(x, "p");
+  }
+
+  @Test public void nodeDataIsNotKeptInProperties() {
+    final InfixExpression x = into.i("a + b");
+    NodeData.set(x, "p", "v");
+    azzert.that(x.properties().size(), is(0));
+  }
+
+  @Test public void setGetUnset() {
+    final InfixExpression x = into.i("a + b");
+    final NodeTable t = NodeTable.of(x);
+    assert !t.has(slot, x);
+    azzert.isNull(t.get(slot, x));
+    azzert.that(t.set(slot, x, "x"), is("x"));
+    azzert.that(t.get(slot, x), is("x"));
+    assert !t.has(slot, x.getLeftOperand());
+    t.unset(slot, x);
+    assert !t.has(slot, x);
+  }
+
+  @Test public void tablePerAST() {
+    final InfixExpression x1 = into.i("a + b"), x2 = into.i("a + b");
+    azzert.that(NodeTable.of(x1), sameInstance(NodeTable.of(x1.getLeftOperand())));
+    azzert.that(NodeTable.of(x1), not(sameInstance(NodeTable.of(x2))));
+    NodeTable.of(x1).set(slot, x1, "x");
+    assert !NodeTable.of(x2).has(slot, x2);
+    azzert.that(NodeTable.of(x1).get(slot, x1), is("x"));
+  }
+}
@@ -0,0 +1,84 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.factory.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.spartanizer.tipping.*;
+
+/** Unit tests for {@link Oscillation}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class OscillationTest {
+  /** Swaps the operands of an addition, and so undoes itself */
+  static final class Swap extends ReplaceCurrentNode<InfixExpression> implements TipperCategory.Sorting {
+    @Override public String description(@SuppressWarnings("unused") final InfixExpression __) {
+      return "Swap operands";
+    }
+
+    @Override public ASTNode replacement(final InfixExpression x) {
+      final InfixExpression $ = x.getAST().newInfixExpression();
+      $.setOperator(x.getOperator());
+      $.setLeftOperand(duplicate.of(x.getRightOperand()));
+      $.setRightOperand(duplicate.of(x.getLeftOperand()));
+      return $;
+    }
+
+    @Override protected boolean prerequisite(final InfixExpression ¢) {
+      return ¢.getOperator() == InfixExpression.Operator.PLUS && !¢.hasExtendedOperands();
+    }
+  }
+
+  private static final String code = "class A { int f(int a, int b) { return a + b; } }";
+
+  @Test public void cycleOfTwo() {
+    final Oscillation o = new Oscillation();
+    assert !o.repeats("a", Collections.emptySet());
+    assert !o.repeats("b", Collections.singleton(Swap.class));
+    assert o.repeats("a", Collections.singleton(Object.class));
+    azzert.that(o.period(), is(2));
+    azzert.that(o.tippers().size(), is(2));
+  }
+
+  @Test public void fixedStopsOnCycle() {
+    final Budget b = new Budget().rounds(1000);
+    final String $ = new Trimmer(Toolbox.emptyToolboox().add(InfixExpression.class, new Swap())).fixed(code, b);
+    azzert.that($, is(code));
+    azzert.that(b.exhausted(), is(Budget.Limit.CYCLE));
+    azzert.that(b.rounds(), is(2));
+    assert b.firing().contains(Swap.class);
+  }
+
+  @Test public void hashesDiffer() {
+    assert Oscillation.hash("a + b") != Oscillation.hash("b + a");
+    azzert.that(Oscillation.hash("a + b"), is(Oscillation.hash("a + b")));
+  }
+
+  @Test public void noCycle() {
+    final Oscillation o = new Oscillation();
+    assert !o.repeats("a", Collections.emptySet());
+    assert !o.repeats("b", Collections.emptySet());
+    azzert.that(o.period(), is(0));
+    assert o.tippers().isEmpty();
+    azzert.that(o + "", is("no cycle"));
+  }
+
+  @Test public void rewriteTellsFiringTippers() {
+    final Trimmer t = new Trimmer(Toolbox.emptyToolboox().add(InfixExpression.class, new Swap()));
+    assert t.firing().isEmpty();
+    t.createRewrite((CompilationUnit) makeAST.COMPILATION_UNIT.from(code));
+    azzert.that(t.firing(), is(Collections.<Class<?>> singleton(Swap.class)));
+  }
+
+  @Test public void terminatingRunHasNoCycle() {
+    final Budget b = new Budget();
+    new Trimmer().fixed("class A { int f(int a) { int b = a; if (b > 0) return b; else return 0; } }", b);
+    assert b.exhausted() == null;
+  }
+}
@@ -0,0 +1,78 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.cmdline.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link Session}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class SessionTest {
+  private static final String code = "class A { int f(int a) { int b = a; if (b > 0) return b; else return 0; } }";
+
+  @Test public void concurrentSessionsAgree() throws Exception {
+    final String expected = new Session().fixed(code);
+    final ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<String>> fs = new ArrayList<>();
+      for (int ¢ = 0; ¢ < 16; ++¢)
+        fs.add(pool.submit(() -> new Session().fixed(code)));
+      for (final Future<String> ¢ : fs)
+        azzert.that(¢.get(), is(expected));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test public void currentIsRestored() {
+    final Session outer = Session.current(), inner = new Session();
+    inner.run(() -> {
+      assert Session.current() == inner;
+    });
+    assert Session.current() == outer;
+  }
+
+  @Test public void stateIsPerSession() {
+    final Session s1 = new Session(), s2 = new Session();
+    s1.run(() -> TrimmerLog.setMaxTips(3));
+    s2.run(() -> TrimmerLog.setMaxTips(7));
+    azzert.that(s1.call(TrimmerLog::getMaxTips).intValue(), is(3));
+    azzert.that(s2.call(TrimmerLog::getMaxTips).intValue(), is(7));
+  }
+
+  @Test public void logIsOnPerSession() {
+    final Session s1 = new Session(), s2 = new Session();
+    s1.run(() -> TrimmerLog.setMaxVisitations(3));
+    assert s1.call(TrimmerLog::on).booleanValue();
+    assert !s2.call(TrimmerLog::on).booleanValue();
+    s1.run(() -> TrimmerLog.setMaxVisitations(0));
+    assert !s1.call(TrimmerLog::on).booleanValue();
+  }
+
+  @Test public void toolboxOfSession() {
+    final Toolbox t = Toolbox.emptyToolboox();
+    final Session s = new Session(t);
+    assert s.toolbox() == t;
+    assert s.call(Trimmer::new).toolbox == t;
+    assert s.fixed(code).equals(code);
+    assert Session.current().toolbox() == Toolbox.defaultInstance();
+  }
+
+  @Test public void trimmerOfSessionTrims() {
+    assert new Session().trimmer().toolbox.firstTipper(into.i("a * 1")) != null;
+  }
+
+  @Test public void unknownState() {
+    final Session s = new Session();
+    final Object o = s.state(Object.class, Object::new);
+    assert s.state(Object.class, Object::new) == o;
+    assert new Session().state(Object.class, Object::new) != o;
+  }
+}
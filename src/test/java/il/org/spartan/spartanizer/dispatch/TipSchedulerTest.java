@@ -0,0 +1,99 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.eclipse.jdt.core.dom.rewrite.*;
+import org.eclipse.text.edits.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+import il.org.spartan.utils.*;
+
+/** Unit tests for {@link TipScheduler}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TipSchedulerTest {
+  private static final String code = "class A { int f(int a) { int b = a + 1; return b * 2; } int g() { return 3; } }";
+  private static final CompilationUnit u = (CompilationUnit) makeAST.COMPILATION_UNIT.from(code);
+
+  private static ASTNode find(final String text) {
+    final List<ASTNode> $ = new ArrayList<>();
+    u.accept(new ASTVisitor() {
+      @Override public void preVisit(final ASTNode ¢) {
+        if ($.isEmpty() && (¢ + "").trim().equals(text))
+          $.add(¢);
+      }
+    });
+    return $.get(0);
+  }
+
+  private static Tip tip(final ASTNode ¢) {
+    return new Tip(¢ + "", ¢, null) {
+      @Override public void go(@SuppressWarnings("unused") final ASTRewrite __, @SuppressWarnings("unused") final TextEditGroup ___) {
+        // no changes
+      }
+    };
+  }
+
+  private static List<String> schedule(final TipScheduler ¢) {
+    final List<String> $ = new ArrayList<>();
+    for (final TipScheduler.Candidate c : ¢.schedule())
+      $.add(c.tip.description.trim());
+    return $;
+  }
+
+  private static TipScheduler scheduler(final String... texts) {
+    final TipScheduler $ = new TipScheduler();
+    for (final String ¢ : texts)
+      $.add(tip(find(¢)), null, find(¢), Collections.emptySet());
+    return $;
+  }
+
+  @Test public void crossingIsDeferred() {
+    final TipScheduler s = new TipScheduler();
+    s.add(tip(find("a + 1")), null, find("a + 1"), Collections.singleton(find("return b * 2;")));
+    s.add(tip(find("int b=a + 1;")), null, find("int b=a + 1;"), Collections.emptySet());
+    s.add(tip(find("return 3;")), null, find("return 3;"), Collections.emptySet());
+    azzert.that(schedule(s), is(Arrays.asList("int b=a + 1;", "return 3;")));
+    azzert.that(s.deferred(), is(1));
+  }
+
+  @Test public void disjointAreIndependent() {
+    final TipScheduler s = scheduler("a + 1", "b * 2", "return 3;");
+    azzert.that(schedule(s).size(), is(3));
+    azzert.that(s.deferred(), is(0));
+  }
+
+  @Test public void excludedNodesWidenFootprint() {
+    final Tip t = tip(find("a + 1"));
+    final Range r = TipScheduler.footprint(t, Collections.singleton(find("return b * 2;")));
+    assert r.from == t.from;
+    assert r.to > t.to;
+    assert find("b * 2").getStartPosition() < r.to;
+  }
+
+  @Test public void excludedNodesConflict() {
+    final TipScheduler s = new TipScheduler();
+    s.add(tip(find("int b=a + 1;")), null, find("int b=a + 1;"), Collections.singleton(find("return b * 2;")));
+    s.add(tip(find("b * 2")), null, find("b * 2"), Collections.emptySet());
+    azzert.that(schedule(s), is(Collections.singletonList("int b=a + 1;")));
+  }
+
+  @Test public void innerPairBeatsOuter() {
+    azzert.that(schedule(scheduler("int f(int a){\n  int b=a + 1;\n  return b * 2;\n}", "a + 1", "b * 2")), is(Arrays.asList("a + 1", "b * 2")));
+  }
+
+  @Test public void orderOfFinding() {
+    azzert.that(schedule(scheduler("return 3;", "a + 1")), is(Arrays.asList("return 3;", "a + 1")));
+  }
+
+  @Test public void outerBeatsSingleInner() {
+    final TipScheduler s = scheduler("int b=a + 1;", "a + 1");
+    azzert.that(schedule(s), is(Collections.singletonList("int b=a + 1;")));
+    azzert.that(s.deferred(), is(1));
+  }
+}
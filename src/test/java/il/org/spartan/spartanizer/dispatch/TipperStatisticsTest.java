@@ -0,0 +1,111 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.tippers.*;
+
+/** Unit tests for {@link TipperStatistics}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TipperStatisticsTest {
+  private static final String code = "class A { int f(int a) { int b = a; if (b > 0) return b; else return 0; } }";
+
+  @Test public void bucketsArePowersOfTwo() {
+    azzert.that(TipperStatistics.bucket(0), is(0));
+    azzert.that(TipperStatistics.bucket(1), is(1));
+    azzert.that(TipperStatistics.bucket(3), is(2));
+    azzert.that(TipperStatistics.bucket(4), is(3));
+    azzert.that(TipperStatistics.bucket(Long.MAX_VALUE), is(TipperStatistics.BUCKETS - 1));
+  }
+
+  @Test public void categoryOfTipper() {
+    azzert.that(TipperStatistics.category(InfixMultiplicationByOne.class), is("InVain"));
+    azzert.that(TipperStatistics.category(Object.class), is("Other"));
+  }
+
+  @Test public void costsAreAccounted() {
+    final Session s = new Session();
+    final TipperStatistics t = s.collectStatistics(true);
+    s.fixed(code);
+    long bytes = 0;
+    for (final TipperStatistics.Entry ¢ : t.snapshot())
+      bytes += ¢.allocatedBytes;
+    assert bytes > 0;
+    assert t.costs().contains("Category");
+  }
+
+  @Test public void costsAreNotAccountedByDefault() {
+    final Session s = new Session();
+    final TipperStatistics t = s.collectStatistics();
+    s.fixed(code);
+    for (final TipperStatistics.Entry ¢ : t.snapshot())
+      azzert.that(¢.cpuNanos + ¢.allocatedBytes, is(0L));
+  }
+
+  @Test public void countsAreConsistent() {
+    final Session s = new Session();
+    final TipperStatistics t = s.collectStatistics();
+    s.fixed(code);
+    assert !t.snapshot().isEmpty();
+    for (final TipperStatistics.Entry ¢ : t.snapshot()) {
+      assert ¢.canTipTrue <= ¢.canTipCalls;
+      assert ¢.applied <= ¢.tipCalls;
+      assert ¢.hitRate() >= 0 && ¢.hitRate() <= 1;
+      long calls = 0;
+      for (final long c : ¢.canTipHistogram())
+        calls += c;
+      azzert.that(calls, is(¢.canTipCalls));
+    }
+  }
+
+  @Test public void disabledByDefault() {
+    assert new Session().statistics() == null;
+  }
+
+  @Test public void dumps() throws IOException {
+    final Session s = new Session();
+    final TipperStatistics t = s.collectStatistics();
+    s.fixed(code);
+    assert t.json().contains("\"tipper\":\"" + t.snapshot().get(0).tipper.getName() + "\"");
+    final File f = File.createTempFile("tippers", "");
+    f.deleteOnExit();
+    assert new File(t.csv(f.getPath())).exists();
+  }
+
+  @Test public void resetForgets() {
+    final Session s = new Session();
+    final TipperStatistics t = s.collectStatistics();
+    s.fixed(code);
+    t.reset();
+    assert t.snapshot().isEmpty();
+  }
+
+  @Test public void sameResultWhenCollecting() {
+    final Session s = new Session();
+    s.collectStatistics();
+    azzert.that(s.fixed(code), is(new Session().fixed(code)));
+  }
+
+  @Test public void sortedByTime() {
+    final Session s = new Session();
+    final TipperStatistics t = s.collectStatistics();
+    s.fixed(code);
+    for (int ¢ = 1; ¢ < t.snapshot().size(); ++¢)
+      assert t.snapshot().get(¢ - 1).nanos() >= t.snapshot().get(¢).nanos();
+  }
+
+  @Test public void tipsAreApplied() {
+    final Session s = new Session();
+    final TipperStatistics t = s.collectStatistics();
+    s.fixed(code);
+    long applied = 0;
+    for (final TipperStatistics.Entry ¢ : t.snapshot())
+      applied += ¢.applied;
+    assert applied > 0;
+  }
+}
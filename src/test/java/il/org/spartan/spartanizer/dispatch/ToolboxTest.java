@@ -0,0 +1,45 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.tippers.*;
+
+/** Unit tests for the snapshots made by {@link Toolbox#defaultInstance()}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ToolboxTest {
+  @Test public void defaultInstanceIsFrozen() {
+    assert Toolbox.defaultInstance().frozen();
+  }
+
+  @Test public void defaultInstanceIsShared() {
+    azzert.that(Toolbox.defaultInstance(), sameInstance(Toolbox.defaultInstance()));
+  }
+
+  @Test public void muttableDefaultInstanceIsFresh() {
+    final Toolbox $ = Toolbox.muttableDefaultInstance();
+    assert !$.frozen();
+    azzert.that($, not(sameInstance(Toolbox.defaultInstance())));
+    azzert.that($.tippersCount(), is(Toolbox.defaultInstance().tippersCount()));
+  }
+
+  @Test public void muttableDefaultInstanceIsMuttable() {
+    final Toolbox $ = Toolbox.muttableDefaultInstance();
+    $.disable(Nominal.class);
+    azzert.that($.tippersCount(), lessThan(Toolbox.defaultInstance().tippersCount()));
+  }
+
+  @Test public void refreshReusesSnapshotOfSameConfiguration() {
+    final Toolbox $ = Toolbox.defaultInstance();
+    Toolbox.refresh();
+    azzert.that(Toolbox.defaultInstance(), sameInstance($));
+  }
+
+  @Test(expected = UnsupportedOperationException.class) public void snapshotCannotBeChanged() {
+    Toolbox.defaultInstance().get(ASTNode.BLOCK).add(new BlockSimplify());
+  }
+}
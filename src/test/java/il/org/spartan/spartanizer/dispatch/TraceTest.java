@@ -0,0 +1,113 @@
+package il.org.spartan.spartanizer.dispatch;
+
+import static il.org.spartan.azzert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for {@link Trace}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class TraceTest {
+  private static final String code = "class A { int f(int a) { int b = a; if (b > 0) return b; else return 0; } }";
+
+  @Test public void capacityIsPowerOfTwo() {
+    azzert.that(new Trace(1).capacity(), is(2));
+    azzert.that(new Trace(1000).capacity(), is(1024));
+    azzert.that(new Trace(1024).capacity(), is(1024));
+  }
+
+  @Test public void csvHasLinePerEvent() throws IOException {
+    final Session s = new Session();
+    final Trace t = s.startTrace(1000);
+    s.fixed(code);
+    final StringWriter w = new StringWriter();
+    t.csv(w);
+    azzert.that((w + "").split("\n").length, is(t.events().size() + 1));
+  }
+
+  @Test public void eventsOfFixed() {
+    final Session s = new Session();
+    final Trace t = s.startTrace(1 << 12);
+    s.fixed(code);
+    final List<Trace.Event> es = t.events();
+    azzert.that(es.get(0).kind, is(Trace.Kind.VISIT));
+    azzert.that(es.get(0).nodeType, is(ASTNode.TYPE_DECLARATION));
+    boolean applied = false;
+    for (final Trace.Event ¢ : es)
+      applied |= ¢.kind == Trace.Kind.APPLY && ¢.tipper != null;
+    assert applied;
+    for (int ¢ = 1; ¢ < es.size(); ++¢)
+      assert es.get(¢ - 1).nanos <= es.get(¢).nanos;
+  }
+
+  @Test public void jsonIsTraceEventFormat() throws IOException {
+    final Session s = new Session();
+    final Trace t = s.startTrace(1000);
+    s.fixed(code);
+    final StringWriter w = new StringWriter();
+    t.json(w);
+    assert (w + "").startsWith("{\"traceEvents\":[");
+    assert (w + "").contains("\"ph\":\"X\"");
+  }
+
+  @Test public void eventsOfThreadsAndUnits() throws InterruptedException, IOException {
+    final Session s = new Session();
+    final Trace t = s.startTrace(1 << 14);
+    final Thread other = new Thread(() -> s.fixed(code));
+    other.start();
+    other.join();
+    s.fixed(code);
+    final Set<Long> threads = new HashSet<>();
+    final Set<Integer> units = new HashSet<>();
+    for (final Trace.Event ¢ : t.events()) {
+      threads.add(Long.valueOf(¢.thread));
+      units.add(Integer.valueOf(¢.unit));
+    }
+    azzert.that(threads, is(new HashSet<>(Arrays.asList(Long.valueOf(other.getId()), Long.valueOf(Thread.currentThread().getId())))));
+    assert units.size() > 2;
+    final StringWriter w = new StringWriter();
+    t.json(w);
+    assert (w + "").contains("\"tid\":" + other.getId() + ",");
+    assert (w + "").contains("\"tid\":" + Thread.currentThread().getId() + ",");
+  }
+
+  @Test public void keepsLatest() {
+    final Trace t = new Trace(4);
+    final ASTNode n = into.e("a + b");
+    for (int ¢ = 0; ¢ < 10; ++¢)
+      t.visitation(n);
+    azzert.that(t.events().size(), is(4));
+    azzert.that(t.dropped(), is(6L));
+  }
+
+  @Test public void notTracedByDefault() {
+    assert new Session().trace() == null;
+  }
+
+  @Test public void packing() {
+    final Trace t = new Trace(2);
+    final Expression e = into.e("a + b");
+    e.setSourceRange(123456, 3);
+    t.visitation(e);
+    final Trace.Event $ = t.events().get(0);
+    azzert.that($.kind, is(Trace.Kind.VISIT));
+    azzert.that($.nodeType, is(ASTNode.INFIX_EXPRESSION));
+    azzert.that($.offset, is(123456));
+    assert $.tipper == null;
+  }
+
+  @Test public void stopped() {
+    final Session s = new Session();
+    final Trace t = s.startTrace(16);
+    assert s.stopTrace() == t;
+    s.fixed(code);
+    assert t.events().isEmpty();
+  }
+}
@@ -0,0 +1,75 @@
+package il.org.spartan.spartanizer.engine;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.ast.navigate.*;
+
+/** Unit tests for {@link DefUseIndex}, checking that {@link Collect} answers
+ * the same with it as without it
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class DefUseIndexTest {
+  private static final String code = "class A { int f(int a) { int b = a; for (int i = 0; i < a; ++i) b += i; while (b > 0) b--; return b; } }";
+
+  private static MethodDeclaration method(final String ¢) {
+    return ((TypeDeclaration) ((CompilationUnit) makeAST.COMPILATION_UNIT.from(¢)).types().get(0)).getMethods()[0];
+  }
+
+  private static List<Statement> statements(final MethodDeclaration ¢) {
+    return step.statements(¢.getBody());
+  }
+
+  @Test public void agreesWithWalk() {
+    final MethodDeclaration d = method(code);
+    final SimpleName a = ((SingleVariableDeclaration) d.parameters().get(0)).getName();
+    final SimpleName b = d.getAST().newSimpleName("b");
+    final SimpleName i = d.getAST().newSimpleName("i");
+    final SimpleName c = d.getAST().newSimpleName("c");
+    for (final SimpleName n : new SimpleName[] { a, b, i, c })
+      for (final Statement s : statements(d)) {
+        final Statement copy = (Statement) ASTNode.copySubtree(AST.newAST(AST.JLS8), s);
+        azzert.that(n + " in " + s, Collect.usesOf(n).in(s).size(), is(Collect.usesOf(n).in(copy).size()));
+        azzert.that(n + " in " + s, Collect.definitionsOf(n).in(s).size(), is(Collect.definitionsOf(n).in(copy).size()));
+        azzert.that(n + " in " + s, Collect.BOTH_SEMANTIC.of(n).in(s).size(), is(Collect.BOTH_SEMANTIC.of(n).in(copy).size()));
+      }
+  }
+
+  @Test public void definitions() {
+    final MethodDeclaration d = method(code);
+    azzert.that(DefUseIndex.of(d).definitions("b").length, is(3));
+    azzert.that(DefUseIndex.of(d).definitions("i").length, is(2));
+    azzert.that(DefUseIndex.of(d).definitions("a").length, is(0));
+    azzert.that(DefUseIndex.of(d).occurrences("a").length, is(3));
+  }
+
+  @Test public void forgetDropsIndex() {
+    final MethodDeclaration d = method(code);
+    final DefUseIndex $ = DefUseIndex.of(d);
+    assert DefUseIndex.of(statements(d).get(0)) == $;
+    DefUseIndex.forget(statements(d).get(0));
+    assert DefUseIndex.of(d) != $;
+  }
+
+  @Test public void noIndexOutsideMethods() {
+    assert DefUseIndex.of(into.i("a + b")) == null;
+    assert DefUseIndex.of(makeAST.COMPILATION_UNIT.from(code)) == null;
+  }
+
+  @Test public void offsetsAreOfOccurrences() {
+    final MethodDeclaration d = method(code);
+    for (final int ¢ : DefUseIndex.of(d).occurrences("b"))
+      azzert.that(code.substring(¢, ¢ + 1), is("b"));
+  }
+
+  @Test public void unknownIdentifier() {
+    final MethodDeclaration d = method(code);
+    assert !DefUseIndex.mayOccurIn(d.getAST().newSimpleName("z"), d);
+    assert DefUseIndex.mayOccurIn(d.getAST().newSimpleName("a"), d);
+  }
+}
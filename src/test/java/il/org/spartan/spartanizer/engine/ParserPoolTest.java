@@ -0,0 +1,64 @@
+package il.org.spartan.spartanizer.engine;
+
+import static il.org.spartan.azzert.*;
+
+import java.util.*;
+
+import org.eclipse.jdt.core.*;
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+
+/** Unit tests for {@link ParserPool}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class ParserPoolTest {
+  @Test public void batchOfNone() {
+    azzert.that(ParserPool.parse(Collections.emptyList(), null).size(), is(0));
+  }
+
+  @Test public void kindsInTurn() {
+    azzert.that(ParserPool.parse(ASTParser.K_COMPILATION_UNIT, "class A {}".toCharArray()) instanceof CompilationUnit, is(true));
+    azzert.that(ParserPool.parse(ASTParser.K_EXPRESSION, "a + b".toCharArray()) instanceof InfixExpression, is(true));
+    azzert.that(ParserPool.parse(ASTParser.K_STATEMENTS, "a(); b();".toCharArray()) instanceof Block, is(true));
+  }
+
+  @Test public void java8() {
+    final CompilationUnit u = (CompilationUnit) ParserPool.parse(ASTParser.K_COMPILATION_UNIT,
+        "class A { Runnable f() { return () -> {}; } }".toCharArray());
+    azzert.that(u.getProblems().length, is(0));
+  }
+
+  @Test public void newParserIsConfigured() {
+    final ASTParser p = ParserPool.parser(ASTParser.K_EXPRESSION);
+    p.setSource("a * b".toCharArray());
+    azzert.that(p.createAST(null) instanceof InfixExpression, is(true));
+  }
+
+  @Test public void parsesAreDistinct() {
+    final ASTNode n1 = ParserPool.parse(ASTParser.K_COMPILATION_UNIT, "class A {}".toCharArray());
+    final ASTNode n2 = ParserPool.parse(ASTParser.K_COMPILATION_UNIT, "class A {}".toCharArray());
+    assert n1 != n2;
+    assert n1.getAST() != n2.getAST();
+    assert n1.subtreeMatch(new ASTMatcher(), n2);
+  }
+
+  @Test public void optionsReadAgainOnRefresh() {
+    final Map<String, String> $ = ParserPool.options();
+    azzert.that(ParserPool.options(), sameInstance($));
+    ParserPool.refresh();
+    azzert.that(ParserPool.options(), not(sameInstance($)));
+    azzert.that(ParserPool.options(), is($));
+    azzert.that(ParserPool.options().get(JavaCore.COMPILER_SOURCE), is(JavaCore.VERSION_1_8));
+  }
+
+  @Test public void perThread() throws InterruptedException {
+    final List<ASTNode> $ = Collections.synchronizedList(new ArrayList<>());
+    final Thread t = new Thread(() -> $.add(ParserPool.parse(ASTParser.K_EXPRESSION, "a - b".toCharArray())));
+    t.start();
+    t.join();
+    azzert.that($.size(), is(1));
+    azzert.that($.get(0) + "", is("a - b"));
+  }
+}
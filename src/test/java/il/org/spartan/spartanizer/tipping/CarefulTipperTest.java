@@ -0,0 +1,117 @@
+package il.org.spartan.spartanizer.tipping;
+
+import static il.org.spartan.azzert.*;
+
+import java.lang.ref.*;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.*;
+import org.junit.runners.*;
+
+import il.org.spartan.*;
+import il.org.spartan.spartanizer.dispatch.*;
+import il.org.spartan.spartanizer.engine.*;
+
+/** Unit tests for the memo of {@link CarefulTipper#canTip(ASTNode)}, and for
+ * {@link ScratchRewrite}
+ * @since 2016 */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING) @SuppressWarnings({ "javadoc", "static-method" }) public final class CarefulTipperTest {
+  static final class Counting extends ReplaceCurrentNode<InfixExpression> implements TipperCategory.InVain {
+    int replacements;
+
+    @Override public String description(@SuppressWarnings("unused") final InfixExpression __) {
+      return "Count";
+    }
+
+    @Override public ASTNode replacement(final InfixExpression ¢) {
+      ++replacements;
+      return ¢.getAST().newSimpleName("x");
+    }
+  }
+
+  private final Counting tipper = new Counting();
+
+  private AST excludedAfterCanTip() throws TipperFailure {
+    final InfixExpression $ = into.i("a * b");
+    assert tipper.canTip($);
+    final ExclusionManager m = new ExclusionManager();
+    m.exclude($);
+    azzert.isNull(tipper.tip($, m));
+    return $.getAST();
+  }
+
+  @Test public void memoIsForgottenAfterChange() throws TipperFailure {
+    final InfixExpression x = into.i("a * b");
+    assert tipper.canTip(x);
+    x.setOperator(InfixExpression.Operator.PLUS);
+    assert tipper.tip(x, null) != null;
+    azzert.that(tipper.replacements, is(2));
+  }
+
+  @Test public void memoIsForgottenWhenExcluded() throws TipperFailure {
+    final InfixExpression x = into.i("a * b");
+    assert tipper.canTip(x);
+    final ExclusionManager m = new ExclusionManager();
+    m.exclude(x);
+    azzert.isNull(tipper.tip(x, m));
+    assert tipper.tip(x, null) != null;
+    azzert.that(tipper.replacements, is(2));
+  }
+
+  @Test public void memoIsForgottenForOtherNode() throws TipperFailure {
+    final InfixExpression x = into.i("a * b");
+    assert tipper.canTip(x);
+    assert tipper.tip(into.i("a * b"), null) != null;
+    assert tipper.tip(x, null) != null;
+    azzert.that(tipper.replacements, is(3));
+  }
+
+  @Test public void memoDoesNotKeepAST() throws TipperFailure {
+    final WeakReference<AST> $ = new WeakReference<>(excludedAfterCanTip());
+    for (int ¢ = 0; ¢ < 10 && $.get() != null; ++¢)
+      System.gc();
+    azzert.isNull($.get());
+  }
+
+  @Test public void memoIsUsedOnce() throws TipperFailure {
+    final InfixExpression x = into.i("a * b");
+    assert tipper.canTip(x);
+    azzert.that(tipper.tip(x, null), not(sameInstance(tipper.tip(x, null))));
+    azzert.that(tipper.replacements, is(2));
+  }
+
+  @Test public void memoIsUsedOnlyForSameNode() throws TipperFailure {
+    final InfixExpression x = into.i("a * b");
+    assert tipper.canTip(x);
+    assert tipper.tip(into.i("a * b"), null) != null;
+    azzert.that(tipper.replacements, is(2));
+  }
+
+  @Test public void memoIsUsedOnlyForSameTipper() throws TipperFailure {
+    final InfixExpression x = into.i("a * b");
+    assert tipper.canTip(x);
+    final Counting other = new Counting();
+    assert other.tip(x, null) != null;
+    azzert.that(other.replacements, is(1));
+  }
+
+  @Test public void scratchRewriteDoesNotKeepAST() {
+    final WeakReference<AST> $ = new WeakReference<>(ScratchRewrite.of(into.i("a * b")).getAST());
+    for (int ¢ = 0; ¢ < 10 && $.get() != null; ++¢)
+      System.gc();
+    azzert.isNull($.get());
+  }
+
+  @Test public void scratchRewriteIsReusedForSameAST() {
+    final InfixExpression x = into.i("a * b");
+    azzert.that(ScratchRewrite.of(x), sameInstance(ScratchRewrite.of(x.getLeftOperand())));
+    azzert.that(ScratchRewrite.of(into.i("a * b")), not(sameInstance(ScratchRewrite.of(x))));
+  }
+
+  @Test public void tipMadeByCanTipIsReused() throws TipperFailure {
+    final InfixExpression x = into.i("a * b");
+    assert tipper.canTip(x);
+    assert tipper.tip(x, null) != null;
+    azzert.that(tipper.replacements, is(1));
+  }
+}